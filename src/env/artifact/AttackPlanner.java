@@ -0,0 +1,175 @@
+// AttackPlanner.java - Heuristic attack target of the Wasp
+package artifact;
+
+import java.util.Arrays;
+
+import model.Position;
+import model.PositionBuffer;
+
+/**
+ * Attack point chosen without the LLM: the fallback when it is rate limited or
+ * failing, and the target the Wasp flies to while its reply is on the way.
+ * Candidates are the sentinels themselves, ranked by kill safety: exactly 1
+ * sentinel within 50px and fewer than 2 within 100px is a safe kill, otherwise
+ * the fewer sentinels within 100px the better; ties go to the one closest to
+ * the Wasp.
+ * <p>
+ * Sentinels are bucketed into 50px cells with a counting sort, so a candidate
+ * is only compared with the sentinels of the 5x5 cells around it. Of those, a
+ * cell whose closest point is out of reach is skipped and a cell wholly in
+ * reach is counted by its size, so only the cells the circle crosses are
+ * scanned, and only until CROWDED are found, past which candidates rank the
+ * same. Two sentinels sharing a cell are less than 100px apart, so a candidate
+ * in a crowded cell is settled without looking; the others are at most
+ * CROWDED - 1 per cell, so a sentinel is scanned for at most 24 * (CROWDED - 1)
+ * candidates of the cells around it. The work stays linear in the number of
+ * sentinels however they are packed.
+ */
+class AttackPlanner {
+    private static final int KILL_RADIUS = 50;
+    private static final int COUNTER_RADIUS = 100;
+    // the diagonal of a cell is shorter than the counter-attack radius
+    private static final int CELL = 50;
+    private static final int REACH = (COUNTER_RADIUS + CELL - 1) / CELL;
+    private static final int CROWDED = 4;
+
+    // reused between calls: cellStart[c] to cellStart[c + 1] are the sentinels of cell c in bySentinel
+    private int[] cellStart = new int[1];
+    private int[] bySentinel = new int[0];
+    private int minX, minY, columns, rows;
+
+    synchronized GeminiService.AttackDecision plan(PositionBuffer sentinelPositions, Position waspPosition) {
+        int count = sentinelPositions.size();
+        if (count == 0)
+            return new GeminiService.AttackDecision(waspPosition.getX(), waspPosition.getY(), "No sentinels found");
+
+        bucket(sentinelPositions);
+
+        int best = -1, bestNear = 0;
+        long bestScore = Long.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            int x = sentinelPositions.getX(i), y = sentinelPositions.getY(i);
+            long dx = x - waspPosition.getX(), dy = y - waspPosition.getY();
+            long distance = dx * dx + dy * dy;
+
+            // the cell alone bounds the count from below: skip what cannot win
+            int cell = cellOf(x, y);
+            int near = Math.min(cellStart[cell + 1] - cellStart[cell], CROWDED);
+            if (score(near, distance) >= bestScore)
+                continue;
+
+            if (near < CROWDED)
+                near = countWithin(sentinelPositions, x, y, COUNTER_RADIUS);
+
+            long score = score(near, distance);
+            if (score < bestScore) {
+                bestScore = score;
+                best = i;
+                bestNear = near;
+            }
+        }
+
+        int targetX = sentinelPositions.getX(best), targetY = sentinelPositions.getY(best);
+        String reasoning;
+        if (bestNear == 1) {
+            // only the target itself within 100px, so alone within 50px too
+            reasoning = "Heuristic: isolated sentinel, safe kill";
+        } else {
+            int inReach = countWithin(sentinelPositions, targetX, targetY, KILL_RADIUS);
+            reasoning = "Heuristic: least guarded sentinel, " + format(bestNear) + " within " + COUNTER_RADIUS
+                    + "px, " + format(inReach) + " within " + KILL_RADIUS + "px";
+        }
+        return new GeminiService.AttackDecision(targetX, targetY, reasoning);
+    }
+
+    private static String format(int count) {
+        return count == CROWDED ? CROWDED + "+" : String.valueOf(count);
+    }
+
+    private static long score(int near, long distance) {
+        return (long) near << 40 | Math.min(distance, (1L << 40) - 1);
+    }
+
+    // counting sort of the sentinels by cell, over their bounding box
+    private void bucket(PositionBuffer sentinelPositions) {
+        int count = sentinelPositions.size();
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, sentinelPositions.getX(i));
+            minY = Math.min(minY, sentinelPositions.getY(i));
+            maxX = Math.max(maxX, sentinelPositions.getX(i));
+            maxY = Math.max(maxY, sentinelPositions.getY(i));
+        }
+        columns = (maxX - minX) / CELL + 1;
+        rows = (maxY - minY) / CELL + 1;
+
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1)
+            cellStart = new int[cells + 1];
+        if (bySentinel.length < count)
+            bySentinel = new int[count];
+
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        for (int i = 0; i < count; i++)
+            cellStart[cellOf(sentinelPositions.getX(i), sentinelPositions.getY(i))]++;
+        // cumulated, each entry is the end of its cell; filling backwards moves it to the start
+        for (int cell = 1; cell <= cells; cell++)
+            cellStart[cell] += cellStart[cell - 1];
+        for (int i = count - 1; i >= 0; i--)
+            bySentinel[--cellStart[cellOf(sentinelPositions.getX(i), sentinelPositions.getY(i))]] = i;
+    }
+
+    private int cellOf(int x, int y) {
+        return (y - minY) / CELL * columns + (x - minX) / CELL;
+    }
+
+    // sentinels within radius of the point, itself included, up to CROWDED
+    private int countWithin(PositionBuffer sentinelPositions, int x, int y, int radius) {
+        int column = (x - minX) / CELL, row = (y - minY) / CELL;
+        long squaredRadius = (long) radius * radius;
+        int found = 0;
+
+        for (int r = Math.max(0, row - REACH); r <= Math.min(rows - 1, row + REACH); r++) {
+            int top = minY + r * CELL;
+            long nearY = gap(y, top, top + CELL - 1), farY = Math.max(Math.abs(y - top), Math.abs(y - top - CELL + 1));
+
+            for (int c = Math.max(0, column - REACH); c <= Math.min(columns - 1, column + REACH); c++) {
+                int cell = r * columns + c;
+                int size = cellStart[cell + 1] - cellStart[cell];
+                if (size == 0)
+                    continue;
+
+                int left = minX + c * CELL;
+                long nearX = gap(x, left, left + CELL - 1);
+                // the closest point of the cell is out of reach: none of its sentinels count
+                if (nearX * nearX + nearY * nearY > squaredRadius)
+                    continue;
+
+                long farX = Math.max(Math.abs(x - left), Math.abs(x - left - CELL + 1));
+                // the farthest point of the cell is in reach: all of its sentinels count
+                if (farX * farX + farY * farY <= squaredRadius) {
+                    found += size;
+                } else {
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1] && found < CROWDED; k++) {
+                        int j = bySentinel[k];
+                        long dx = sentinelPositions.getX(j) - x, dy = sentinelPositions.getY(j) - y;
+                        if (dx * dx + dy * dy <= squaredRadius)
+                            found++;
+                    }
+                }
+                if (found >= CROWDED)
+                    return CROWDED;
+            }
+        }
+        return found;
+    }
+
+    // distance from the coordinate to the interval [low, high], 0 inside it
+    private static long gap(int value, int low, int high) {
+        return value < low ? low - value : value > high ? value - high : 0;
+    }
+}
@@ -0,0 +1,186 @@
+// DecisionCache.java - Reuse of LLM decisions for boards seen before
+package artifact;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import model.Position;
+import model.PositionBuffer;
+
+/**
+ * Cache of LLM attack decisions keyed by a quantized board: the attacked hive
+ * and the wasp's grid cell plus a hash of the sentinel occupancy per cell, with
+ * counts bucketed to
+ * 0, 1, 2 or more. Boards with the same few sentinels a few pixels apart share
+ * a key. Entries are evicted least recently used past DECISION_CACHE_SIZE and
+ * expire after DECISION_CACHE_TTL_MS; a hit is only served if a sentinel is
+ * still within reach of its target.
+ * <p>
+ * With the melissa.decisionCache system property set to a file, the cache is
+ * loaded from it at start and written back at exit, so a restarted run warms
+ * up instantly. The TTL is wall-clock time of one run, so a loaded entry
+ * starts it over; only the LRU bound and the reach check apply across runs.
+ */
+public class DecisionCache {
+    public static final String FILE_PROPERTY = "melissa.decisionCache";
+
+    private final int cellSize;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Gson gson = new Gson();
+    private final Map<Long, Entry> entries;
+
+    private static class Entry {
+        long key;
+        int targetX;
+        int targetY;
+        String reasoning;
+        long createdAt;
+    }
+
+    public DecisionCache(int cellSize, int maxEntries, long ttlMillis) {
+        this.cellSize = cellSize;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > DecisionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Cache with the sizes in Parameters, persisted if melissa.decisionCache
+     * names a file
+     */
+    public static DecisionCache create() {
+        DecisionCache cache = new DecisionCache(Parameters.DECISION_CACHE_CELL, Parameters.DECISION_CACHE_SIZE,
+                Parameters.DECISION_CACHE_TTL_MS);
+
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null && !file.isEmpty()) {
+            Path path = Paths.get(file);
+            cache.load(path);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> cache.save(path)));
+        }
+        return cache;
+    }
+
+    /**
+     * Signature of the board: hive and wasp cells and bucketed sentinel
+     * occupancy
+     */
+    public long key(PositionBuffer sentinelPositions, Position waspPosition, Position hivePosition, int mapWidth,
+            int mapHeight) {
+        int columns = Math.max(1, (mapWidth + cellSize - 1) / cellSize);
+        int rows = Math.max(1, (mapHeight + cellSize - 1) / cellSize);
+        int[] occupancy = new int[columns * rows];
+
+        for (int i = 0; i < sentinelPositions.size(); i++)
+            occupancy[cell(sentinelPositions.getX(i), sentinelPositions.getY(i), columns, rows)]++;
+
+        long hash = mix(cell(hivePosition.getX(), hivePosition.getY(), columns, rows));
+        hash = mix(hash ^ cell(waspPosition.getX(), waspPosition.getY(), columns, rows));
+        for (int cell = 0; cell < occupancy.length; cell++) {
+            if (occupancy[cell] > 0)
+                hash = mix(hash ^ ((long) cell << 2 | Math.min(occupancy[cell], 3)));
+        }
+        return hash;
+    }
+
+    private int cell(int x, int y, int columns, int rows) {
+        int column = Math.min(columns - 1, Math.max(0, x / cellSize));
+        int row = Math.min(rows - 1, Math.max(0, y / cellSize));
+        return row * columns + column;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The cached decision for the key, if it has not expired and a sentinel is
+     * still within reachRadius of its target; null otherwise
+     */
+    public synchronized GeminiService.AttackDecision get(long key, PositionBuffer sentinelPositions,
+            int reachRadius) {
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+
+        if (System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+
+        long reach = (long) reachRadius * reachRadius;
+        for (int i = 0; i < sentinelPositions.size(); i++) {
+            long dx = sentinelPositions.getX(i) - entry.targetX;
+            long dy = sentinelPositions.getY(i) - entry.targetY;
+            if (dx * dx + dy * dy <= reach)
+                return new GeminiService.AttackDecision(entry.targetX, entry.targetY, entry.reasoning);
+        }
+        return null;
+    }
+
+    public synchronized void put(long key, GeminiService.AttackDecision decision) {
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.targetX = decision.targetX;
+        entry.targetY = decision.targetY;
+        entry.reasoning = decision.reasoning;
+        entry.createdAt = System.currentTimeMillis();
+        entries.put(key, entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void load(Path path) {
+        if (!Files.exists(path))
+            return;
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            List<Entry> loaded = gson.fromJson(reader, new TypeToken<List<Entry>>() {
+            }.getType());
+            long now = System.currentTimeMillis();
+
+            if (loaded != null) {
+                // oldest first, so the access order matches the file
+                for (Entry entry : loaded) {
+                    if (entry == null)
+                        continue;
+                    entry.createdAt = now;
+                    entries.put(entry.key, entry);
+                }
+            }
+            System.out.println("[DecisionCache] Loaded " + entries.size() + " decisions from " + path);
+        } catch (Exception e) {
+            System.err.println("[DecisionCache] Could not load " + path + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void save(Path path) {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            gson.toJson(new ArrayList<>(entries.values()), writer);
+        } catch (Exception e) {
+            System.err.println("[DecisionCache] Could not save " + path + ": " + e.getMessage());
+        }
+    }
+}
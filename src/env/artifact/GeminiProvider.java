@@ -0,0 +1,133 @@
+// GeminiProvider.java - Google Gemini as the Wasp's strategy provider
+package artifact;
+
+import java.io.FileInputStream;
+import java.net.URI;
+import java.util.Properties;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Gemini generateContent endpoint, with the API key read from
+ * gemini-config.properties. The rules go in systemInstruction and the reply is
+ * constrained to the decision object with responseSchema.
+ */
+public class GeminiProvider extends HttpStrategyProvider {
+    private static final long RATE_LIMIT_MS = 5000; // 5 seconds between calls
+    private static final String API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
+    private static final JsonObject GENERATION_CONFIG = generationConfig();
+    private String apiKey;
+
+    public GeminiProvider() {
+        loadApiKey();
+    }
+
+    private void loadApiKey() {
+        try {
+            Properties props = new Properties();
+            // Try multiple paths for the config file
+            String[] paths = {
+                    "src/env/artifact/gemini-config.properties",
+                    "gemini-config.properties"
+            };
+
+            for (String path : paths) {
+                try {
+                    props.load(new FileInputStream(path));
+                    apiKey = props.getProperty("gemini.api.key");
+                    if (apiKey != null && !apiKey.isEmpty()) {
+                        System.out.println("[GeminiService] API key loaded successfully from: " + path);
+                        return;
+                    }
+                } catch (Exception e) {
+                    // Try next path
+                }
+            }
+
+            System.err.println("[GeminiService] WARNING: Could not load API key from config file!");
+        } catch (Exception e) {
+            System.err.println("[GeminiService] Error loading API key: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "GeminiService";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    @Override
+    public long getMinIntervalMillis() {
+        return RATE_LIMIT_MS;
+    }
+
+    @Override
+    protected URI getUri() {
+        return URI.create(API_URL + "?key=" + apiKey);
+    }
+
+    // JSON reply holding exactly the decision
+    private static JsonObject generationConfig() {
+        JsonObject properties = new JsonObject();
+        properties.add(StrategyPrompt.X, type("INTEGER"));
+        properties.add(StrategyPrompt.Y, type("INTEGER"));
+        properties.add(StrategyPrompt.REASON, type("STRING"));
+        JsonArray required = new JsonArray();
+        required.add(StrategyPrompt.X);
+        required.add(StrategyPrompt.Y);
+
+        JsonObject schema = type("OBJECT");
+        schema.add("properties", properties);
+        schema.add("required", required);
+
+        JsonObject config = new JsonObject();
+        config.addProperty("responseMimeType", "application/json");
+        config.add("responseSchema", schema);
+        return config;
+    }
+
+    private static JsonObject type(String type) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", type);
+        return schema;
+    }
+
+    private static JsonObject content(String text) {
+        JsonArray parts = new JsonArray();
+        JsonObject part = new JsonObject();
+        part.addProperty("text", text);
+        parts.add(part);
+        JsonObject content = new JsonObject();
+        content.add("parts", parts);
+        return content;
+    }
+
+    @Override
+    protected JsonObject buildRequest(String systemInstruction, String prompt) {
+        JsonObject requestBody = new JsonObject();
+        requestBody.add("systemInstruction", content(systemInstruction));
+        JsonArray contents = new JsonArray();
+        contents.add(content(prompt));
+        requestBody.add("contents", contents);
+        requestBody.add("generationConfig", GENERATION_CONFIG);
+        return requestBody;
+    }
+
+    @Override
+    protected String extractText(JsonObject response) {
+        JsonArray candidates = response.getAsJsonArray("candidates");
+        if (candidates != null && candidates.size() > 0) {
+            JsonObject candidate = candidates.get(0).getAsJsonObject();
+            JsonObject contentObj = candidate.getAsJsonObject("content");
+            JsonArray partsArr = contentObj.getAsJsonArray("parts");
+            if (partsArr != null && partsArr.size() > 0)
+                return partsArr.get(0).getAsJsonObject().get("text").getAsString();
+        }
+        return "";
+    }
+}
@@ -1,75 +1,71 @@
 // GeminiService.java - LLM Integration for Wasp Agent Strategy
 package artifact;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.List;
-import java.util.Properties;
-
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import model.Position;
+import model.PositionBuffer;
 
 /**
- * Service class for communicating with Gemini LLM API.
+ * Service class for communicating with the LLM.
  * Provides strategic attack decisions for the Wasp agent.
+ * The model is reached through a StrategyProvider chosen by configuration
+ * (Gemini by default), asynchronously, so calls never block the caller.
+ * The board is encoded compactly and the reply read as JSON, see
+ * StrategyPrompt.
+ * Decisions are cached by quantized board (see DecisionCache), shared by
+ * every wasp.
  */
 public class GeminiService {
-    private static GeminiService instance;
-    private String apiKey;
-    private long lastCallTime = 0;
-    private static final long RATE_LIMIT_MS = 5000; // 5 seconds between calls
-    private static final String API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
-    private final Gson gson = new Gson();
+    // one provider for every wasp, so its rate limit is the API key's
+    private static StrategyProvider sharedProvider;
+    private final StrategyProvider provider;
+    private final AttackPlanner planner = new AttackPlanner();
+    // the attacked hive, in the prompt
+    private final int hiveX;
+    private final int hiveY;
+    private final int hiveWidth;
+    private final int hiveHeight;
+    private static final DecisionCache DECISION_CACHE = DecisionCache.create();
+    // a cached target is reused only with a sentinel still within attack reach
+    private static final int CACHE_REACH = 50;
 
     // Async prefetch support
     private volatile AttackDecision prefetchedDecision = null;
     private volatile boolean prefetchInProgress = false;
-    private AttackDecision lastValidDecision = null;
+    private volatile AttackDecision lastValidDecision = null;
 
-    private GeminiService() {
-        loadApiKey();
+    // prompt size and reply quality
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong promptBytes = new AtomicLong();
+    private final AtomicLong parseFailures = new AtomicLong();
+
+    public GeminiService() {
+        this(Parameters.HIVE_X, Parameters.HIVE_Y, Parameters.HIVE_WIDTH, Parameters.HIVE_HEIGHT);
     }
 
-    public static synchronized GeminiService getInstance() {
-        if (instance == null) {
-            instance = new GeminiService();
-        }
-        return instance;
+    /**
+     * Service for a wasp attacking the hive with the given bounds, through the
+     * provider shared by every wasp
+     */
+    public GeminiService(int hiveX, int hiveY, int hiveWidth, int hiveHeight) {
+        this(getSharedProvider(), hiveX, hiveY, hiveWidth, hiveHeight);
     }
 
-    private void loadApiKey() {
-        try {
-            Properties props = new Properties();
-            // Try multiple paths for the config file
-            String[] paths = {
-                    "src/env/artifact/gemini-config.properties",
-                    "gemini-config.properties"
-            };
-
-            for (String path : paths) {
-                try {
-                    props.load(new FileInputStream(path));
-                    apiKey = props.getProperty("gemini.api.key");
-                    if (apiKey != null && !apiKey.isEmpty()) {
-                        System.out.println("[GeminiService] API key loaded successfully from: " + path);
-                        return;
-                    }
-                } catch (Exception e) {
-                    // Try next path
-                }
-            }
+    public GeminiService(StrategyProvider provider, int hiveX, int hiveY, int hiveWidth, int hiveHeight) {
+        this.provider = provider;
+        this.hiveX = hiveX;
+        this.hiveY = hiveY;
+        this.hiveWidth = hiveWidth;
+        this.hiveHeight = hiveHeight;
+    }
 
-            System.err.println("[GeminiService] WARNING: Could not load API key from config file!");
-        } catch (Exception e) {
-            System.err.println("[GeminiService] Error loading API key: " + e.getMessage());
-        }
+    private static synchronized StrategyProvider getSharedProvider() {
+        if (sharedProvider == null)
+            sharedProvider = StrategyProvider.create(null);
+        return sharedProvider;
     }
 
     /**
@@ -91,51 +87,84 @@ public class GeminiService {
      * Check if API is currently rate-limited (internal rate limit)
      */
     public boolean isInternallyRateLimited() {
-        return System.currentTimeMillis() - lastCallTime < RATE_LIMIT_MS;
+        return provider.getMillisUntilNextCall() > 0;
     }
 
     /**
-     * Query the LLM for optimal attack strategy based on sentinel positions
+     * Query the LLM for optimal attack strategy based on sentinel positions.
+     * Blocks until the decision is there; see getAttackStrategyAsync.
      */
-    public AttackDecision getAttackStrategy(List<Position> sentinelPositions, Position waspPosition, int mapWidth,
+    public AttackDecision getAttackStrategy(PositionBuffer sentinelPositions, Position waspPosition, int mapWidth,
             int mapHeight) {
-        // Rate limiting check
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCallTime < RATE_LIMIT_MS) {
-            System.out.println("[GeminiService] Rate limit active, using last cached decision");
-            return getDefaultDecision(sentinelPositions, waspPosition);
+        return getAttackStrategyAsync(sentinelPositions, waspPosition, mapWidth, mapHeight).join();
+    }
+
+    /**
+     * Query the LLM for optimal attack strategy without blocking. The future
+     * always completes with a decision: the fallback one when rate-limited,
+     * without an API key or on any error.
+     */
+    public CompletableFuture<AttackDecision> getAttackStrategyAsync(PositionBuffer sentinelPositions,
+            Position waspPosition, int mapWidth, int mapHeight) {
+        long boardKey = DECISION_CACHE.key(sentinelPositions, waspPosition, new Position(hiveX, hiveY), mapWidth,
+                mapHeight);
+        AttackDecision cached = DECISION_CACHE.get(boardKey, sentinelPositions, CACHE_REACH);
+        if (cached != null) {
+            System.out.println("[GeminiService] Same board seen before, using cached decision");
+            return CompletableFuture.completedFuture(cached);
         }
-        lastCallTime = currentTime;
 
-        if (apiKey == null || apiKey.isEmpty()) {
+        if (!provider.isAvailable()) {
             System.out.println("[GeminiService] No API key, using fallback strategy");
-            return getDefaultDecision(sentinelPositions, waspPosition);
+            return CompletableFuture.completedFuture(getDefaultDecision(sentinelPositions, waspPosition));
         }
 
-        try {
-            String prompt = buildPrompt(sentinelPositions, waspPosition, mapWidth, mapHeight);
-            String response = callGeminiAPI(prompt);
-            return parseResponse(response, sentinelPositions, waspPosition);
-        } catch (Exception e) {
-            String errorMsg = e.getMessage();
-            // Shorten 429 rate limit errors
-            if (errorMsg != null && errorMsg.contains("429")) {
-                // Extract retry time if present
-                String retryInfo = "";
-                if (errorMsg.contains("retry in")) {
-                    int idx = errorMsg.indexOf("retry in");
-                    int endIdx = errorMsg.indexOf("s", idx);
-                    if (endIdx > idx && endIdx - idx < 30) {
-                        retryInfo = " (" + errorMsg.substring(idx, endIdx + 1) + ")";
-                    }
+        // Rate limiting check, shared by every wasp on the provider
+        if (!provider.tryAcquire()) {
+            System.out.println("[GeminiService] Rate limit active, using fallback strategy");
+            return CompletableFuture.completedFuture(getDefaultDecision(sentinelPositions, waspPosition));
+        }
+
+        // the caller may refill its buffer before the reply arrives
+        PositionBuffer positions = sentinelPositions.copy();
+        String prompt = StrategyPrompt.build(positions, waspPosition, hiveX, hiveY, hiveWidth, hiveHeight, mapWidth,
+                mapHeight);
+        requests.incrementAndGet();
+        promptBytes.addAndGet(prompt.length());
+
+        return provider.requestStrategy(StrategyPrompt.SYSTEM_INSTRUCTION, prompt)
+                .thenApply(response -> {
+                    AttackDecision decision = parseResponse(response);
+                    if (decision == null)
+                        return getDefaultDecision(positions, waspPosition);
+
+                    DECISION_CACHE.put(boardKey, decision);
+                    return decision;
+                })
+                .exceptionally(e -> {
+                    logFailure(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return getDefaultDecision(positions, waspPosition);
+                });
+    }
+
+    private void logFailure(Throwable e) {
+        String errorMsg = e.getMessage();
+        // Shorten 429 rate limit errors
+        if (errorMsg != null && errorMsg.contains("429")) {
+            // Extract retry time if present
+            String retryInfo = "";
+            if (errorMsg.contains("retry in")) {
+                int idx = errorMsg.indexOf("retry in");
+                int endIdx = errorMsg.indexOf("s", idx);
+                if (endIdx > idx && endIdx - idx < 30) {
+                    retryInfo = " (" + errorMsg.substring(idx, endIdx + 1) + ")";
                 }
-                System.out.println("[GeminiService] Rate limited" + retryInfo + ". Using fallback.");
-            } else {
-                System.err.println("[GeminiService] API error: "
-                        + (errorMsg != null && errorMsg.length() > 100 ? errorMsg.substring(0, 100) + "..."
-                                : errorMsg));
             }
-            return getDefaultDecision(sentinelPositions, waspPosition);
+            System.out.println("[GeminiService] Rate limited" + retryInfo + ". Using fallback.");
+        } else {
+            System.err.println("[GeminiService] API error: "
+                    + (errorMsg != null && errorMsg.length() > 100 ? errorMsg.substring(0, 100) + "..."
+                            : errorMsg));
         }
     }
 
@@ -143,7 +172,7 @@ public class GeminiService {
      * Start prefetching next strategy in background thread.
      * Call this while Wasp is moving to eliminate wait time.
      */
-    public void prefetchNextStrategy(List<Position> sentinelPositions, Position waspPosition,
+    public void prefetchNextStrategy(PositionBuffer sentinelPositions, Position waspPosition,
             int mapWidth, int mapHeight) {
         // Don't start new prefetch if one is already in progress
         if (prefetchInProgress) {
@@ -151,29 +180,44 @@ public class GeminiService {
         }
 
         // Check rate limit - if not enough time passed, don't prefetch
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCallTime < RATE_LIMIT_MS - 1000) { // Start 1s before rate limit expires
+        if (provider.getMillisUntilNextCall() > 1000) { // Start 1s before rate limit expires
             return;
         }
 
-        prefetchInProgress = true;
         System.out.println("[GeminiService] Starting prefetch for next target...");
+        fetchStrategy(sentinelPositions, waspPosition, mapWidth, mapHeight);
+    }
 
-        Thread prefetchThread = new Thread(() -> {
-            try {
-                AttackDecision decision = getAttackStrategy(sentinelPositions, waspPosition, mapWidth, mapHeight);
-                prefetchedDecision = decision;
-                lastValidDecision = decision;
-                System.out.println(
-                        "[GeminiService] Prefetch complete: (" + decision.targetX + ", " + decision.targetY + ")");
-            } catch (Exception e) {
-                System.err.println("[GeminiService] Prefetch error: " + e.getMessage());
-            } finally {
-                prefetchInProgress = false;
-            }
-        });
-        prefetchThread.setDaemon(true);
-        prefetchThread.start();
+    /**
+     * Start computing a strategy in the background right away, unless a fetch
+     * is already running. The result is picked up with getPrefetchedDecision();
+     * callers on the simulation loop use this instead of the blocking
+     * getAttackStrategy.
+     */
+    public void requestStrategy(PositionBuffer sentinelPositions, Position waspPosition, int mapWidth,
+            int mapHeight) {
+        if (prefetchInProgress) {
+            return;
+        }
+        fetchStrategy(sentinelPositions, waspPosition, mapWidth, mapHeight);
+    }
+
+    private void fetchStrategy(PositionBuffer sentinelPositions, Position waspPosition, int mapWidth,
+            int mapHeight) {
+        prefetchInProgress = true;
+
+        getAttackStrategyAsync(sentinelPositions, waspPosition, mapWidth, mapHeight)
+                .whenComplete((decision, e) -> {
+                    if (decision != null) {
+                        prefetchedDecision = decision;
+                        lastValidDecision = decision;
+                        System.out.println("[GeminiService] Prefetch complete: (" + decision.targetX + ", "
+                                + decision.targetY + ")");
+                    } else {
+                        System.err.println("[GeminiService] Prefetch error: " + e.getMessage());
+                    }
+                    prefetchInProgress = false;
+                });
     }
 
     /**
@@ -211,166 +255,55 @@ public class GeminiService {
         return lastValidDecision;
     }
 
-    private String buildPrompt(List<Position> sentinelPositions, Position waspPosition, int mapWidth, int mapHeight) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("You are an AI controlling a wasp predator in a beehive simulation game. ");
-        sb.append("Your goal is to hunt sentinel bees efficiently.\n\n");
-        sb.append("GAME RULES:\n");
-        sb.append("- ATTACK: You can kill 1 or 2 sentinels if they are within 50px of you\n");
-        sb.append("- DANGER: If 2+ sentinels are within 100px, they will counter-attack and damage you\n");
-        sb.append("- STRATEGY: Target isolated sentinels (exactly 1 alone), avoid groups of 2+\n");
-        sb.append("- Map size: " + mapWidth + "x" + mapHeight + "\n");
-        sb.append("- Hive location is at bottom-right area (around 649-799x, 449-599y) - avoid entering!\n\n");
-
-        sb.append("CURRENT STATE:\n");
-        sb.append("- Your position: (" + waspPosition.getX() + ", " + waspPosition.getY() + ")\n");
-        sb.append("- Sentinel positions:\n");
-
-        for (int i = 0; i < sentinelPositions.size(); i++) {
-            Position p = sentinelPositions.get(i);
-            sb.append("  Sentinel " + (i + 1) + ": (" + p.getX() + ", " + p.getY() + ")\n");
+    /**
+     * The decision in the reply, null if there is none
+     */
+    private AttackDecision parseResponse(String text) {
+        AttackDecision decision = StrategyPrompt.parse(text);
+        if (decision == null) {
+            parseFailures.incrementAndGet();
+            return null;
         }
 
-        sb.append("\nANALYZE and choose the BEST attack position that:\n");
-        sb.append("1. Has exactly 1 sentinel within 50px (safe kill)\n");
-        sb.append("2. Has fewer than 2 sentinels within 100px (avoid counter-attack)\n");
-        sb.append("3. Targets sentinels OUTSIDE the hive (they cannot retreat)\n\n");
-
-        sb.append("RESPOND IN THIS EXACT FORMAT:\n");
-        sb.append("TARGET_X: <number>\n");
-        sb.append("TARGET_Y: <number>\n");
-        sb.append("REASONING: <brief explanation in one line>\n");
-
-        return sb.toString();
+        System.out.println("[GeminiService] LLM Strategy - Target: (" + decision.targetX + "," + decision.targetY
+                + ") - " + decision.reasoning);
+        return decision;
     }
 
-    private String callGeminiAPI(String prompt) throws Exception {
-        URL url = java.net.URI.create(API_URL + "?key=" + apiKey).toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
-        conn.setConnectTimeout(10000);
-        conn.setReadTimeout(10000);
-
-        // Build request body
-        JsonObject requestBody = new JsonObject();
-        JsonArray contents = new JsonArray();
-        JsonObject content = new JsonObject();
-        JsonArray parts = new JsonArray();
-        JsonObject part = new JsonObject();
-        part.addProperty("text", prompt);
-        parts.add(part);
-        content.add("parts", parts);
-        contents.add(content);
-        requestBody.add("contents", contents);
-
-        // Send request
-        try (OutputStream os = conn.getOutputStream()) {
-            byte[] input = gson.toJson(requestBody).getBytes("utf-8");
-            os.write(input, 0, input.length);
-        }
-
-        // Read response
-        int responseCode = conn.getResponseCode();
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-            BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream(), "utf-8"));
-            StringBuilder response = new StringBuilder();
-            String responseLine;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
-            }
-            System.out.println("[GeminiService] API call successful");
-            return response.toString();
-        } else {
-            BufferedReader br = new BufferedReader(new InputStreamReader(conn.getErrorStream(), "utf-8"));
-            StringBuilder error = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                error.append(line);
-            }
-            throw new Exception("API error " + responseCode + ": " + error.toString());
-        }
+    /**
+     * Prompts sent so far
+     */
+    public long getRequests() {
+        return requests.get();
     }
 
-    private AttackDecision parseResponse(String jsonResponse, List<Position> sentinelPositions, Position waspPosition) {
-        try {
-            JsonObject response = gson.fromJson(jsonResponse, JsonObject.class);
-            JsonArray candidates = response.getAsJsonArray("candidates");
-            if (candidates != null && candidates.size() > 0) {
-                JsonObject candidate = candidates.get(0).getAsJsonObject();
-                JsonObject contentObj = candidate.getAsJsonObject("content");
-                JsonArray partsArr = contentObj.getAsJsonArray("parts");
-                if (partsArr != null && partsArr.size() > 0) {
-                    String text = partsArr.get(0).getAsJsonObject().get("text").getAsString();
-
-                    // Parse the structured response
-                    int targetX = -1, targetY = -1;
-                    String reasoning = "LLM decision";
-
-                    for (String line : text.split("\n")) {
-                        line = line.trim();
-                        if (line.startsWith("TARGET_X:")) {
-                            targetX = extractNumber(line);
-                        } else if (line.startsWith("TARGET_Y:")) {
-                            targetY = extractNumber(line);
-                        } else if (line.startsWith("REASONING:")) {
-                            reasoning = line.substring("REASONING:".length()).trim();
-                        }
-                    }
-
-                    if (targetX >= 0 && targetY >= 0) {
-                        System.out.println("[GeminiService] LLM Strategy - Target: (" + targetX + "," + targetY + ") - "
-                                + reasoning);
-                        return new AttackDecision(targetX, targetY, reasoning);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("[GeminiService] Parse error: " + e.getMessage());
-        }
-
-        return getDefaultDecision(sentinelPositions, waspPosition);
+    /**
+     * Mean size of the prompts sent, system instruction excluded
+     */
+    public double getMeanPromptBytes() {
+        long sent = requests.get();
+        return sent == 0 ? 0 : (double) promptBytes.get() / sent;
     }
 
-    private int extractNumber(String line) {
-        try {
-            String numStr = line.replaceAll("[^0-9]", "");
-            return Integer.parseInt(numStr);
-        } catch (Exception e) {
-            return -1;
-        }
+    /**
+     * Replies holding no readable decision
+     */
+    public long getParseFailures() {
+        return parseFailures.get();
     }
 
     /**
-     * Fallback strategy when LLM is unavailable - find closest cluster of sentinels
+     * Heuristic target, computed at once: what the Wasp flies to while the LLM
+     * call is in flight
      */
-    private AttackDecision getDefaultDecision(List<Position> sentinelPositions, Position waspPosition) {
-        if (sentinelPositions.isEmpty()) {
-            return new AttackDecision(waspPosition.getX(), waspPosition.getY(), "No sentinels found");
-        }
-
-        // Find the position with most sentinels in a 100-pixel radius
-        int bestX = 0, bestY = 0;
-        int bestCount = 0;
-
-        for (Position p : sentinelPositions) {
-            int count = 0;
-            for (Position other : sentinelPositions) {
-                double dist = Math.sqrt(Math.pow(p.getX() - other.getX(), 2) + Math.pow(p.getY() - other.getY(), 2));
-                if (dist <= 100) {
-                    count++;
-                }
-            }
-            // Prefer clusters of 2-3 (avoid 4+ to minimize counter-attack risk)
-            if ((count >= 1 && count <= 3 && count > bestCount) ||
-                    (bestCount == 0 || (bestCount > 3 && count <= 3))) {
-                bestCount = count;
-                bestX = p.getX();
-                bestY = p.getY();
-            }
-        }
+    public AttackDecision getSpeculativeDecision(PositionBuffer sentinelPositions, Position waspPosition) {
+        return planner.plan(sentinelPositions, waspPosition);
+    }
 
-        return new AttackDecision(bestX, bestY, "Fallback: targeting cluster of " + bestCount);
+    /**
+     * Fallback strategy when LLM is unavailable - see AttackPlanner
+     */
+    private AttackDecision getDefaultDecision(PositionBuffer sentinelPositions, Position waspPosition) {
+        return planner.plan(sentinelPositions, waspPosition);
     }
 }
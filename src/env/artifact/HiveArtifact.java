@@ -3,12 +3,12 @@
 package artifact;
 
 import cartago.Artifact;
-import cartago.INTERNAL_OPERATION;
 import cartago.OPERATION;
 import cartago.ObsProperty;
 import cartago.OpFeedbackParam;
+import graphic.Colony;
 import graphic.Environment;
-import model.Hive;
+import graphic.model.HiveGraphic;
 import model.Larva;
 import model.exception.CannotDepositOnThisPositionException;
 import model.exception.InsufficientHoneyException;
@@ -17,7 +17,19 @@ import model.exception.NoLongerHiveException;
 import model.exception.NoPollenCollectedException;
 
 public class HiveArtifact extends Artifact {
+	private Colony colony;
+
 	void init() {
+		init(Parameters.DEFAULT_COLONY);
+	}
+
+	/**
+	 * @param colonyId colony whose hive this artifact is (see
+	 *                 Parameters.makeHivePosition)
+	 */
+	void init(String colonyId) {
+		colony = Environment.getInstance().getColony(colonyId);
+
 		defineObsProperty("pollen", 0);
 		defineObsProperty("honey", 0);
 		defineObsProperty("intTemperature", 0);
@@ -29,7 +41,8 @@ public class HiveArtifact extends Artifact {
 		defineObsProperty("width", 0);
 		defineObsProperty("height", 0);
 
-		execInternalOp("temperatureChange");
+		Environment.getInstance().getSimulationLoop().schedule(colonyId, Parameters.HIVE_TEMPERATURE_TICKS,
+				tick -> temperatureChange());
 	}
 
 	@OPERATION
@@ -37,7 +50,8 @@ public class HiveArtifact extends Artifact {
 		honeyStart(Parameters.HONEY_START);
 		pollenStart(Parameters.POLLEN_START);
 		tempStart(Parameters.TEMPERATURE_START);
-		dimStart(Parameters.HIVE_X, Parameters.HIVE_Y, Parameters.HIVE_WIDTH, Parameters.HIVE_HEIGHT);
+		HiveGraphic hive = colony.getHiveGraphic();
+		dimStart(hive.getX(), hive.getY(), hive.getWidth(), hive.getHeight());
 	}
 
 	void dimStart(int x, int y, int width, int height) {
@@ -78,7 +92,7 @@ public class HiveArtifact extends Artifact {
 	@OPERATION
 	void processPollen() {
 		try {
-			Environment.getInstance().processPollen(1);
+			colony.processPollen(1);
 		} catch (InsufficientPollenException e) {
 			failed(e.getMessage());
 		}
@@ -86,13 +100,13 @@ public class HiveArtifact extends Artifact {
 
 	@OPERATION
 	void pollenStart(int ammount) {
-		Environment.getInstance().setPollenStart(ammount);
+		colony.setPollenStart(ammount);
 		updateObsProperty("pollen", ammount);
 	}
 
 	@OPERATION
 	void honeyStart(int ammount) {
-		Environment.getInstance().setHoneyStart(ammount);
+		colony.setHoneyStart(ammount);
 		updateObsProperty("honey", ammount);
 		pollenStart(0);
 	}
@@ -100,7 +114,7 @@ public class HiveArtifact extends Artifact {
 	@OPERATION
 	void eat(int ammount) {
 		try {
-			Environment.getInstance().eat(ammount);
+			colony.eat(ammount);
 		} catch (InsufficientHoneyException e) {
 			failed(e.getMessage());
 		}
@@ -108,14 +122,14 @@ public class HiveArtifact extends Artifact {
 
 	@OPERATION
 	void createLarva() {
-		Environment.getInstance().createLarva();
-		updateObsProperty("larvas", Hive.getInstance().getLarvas().size());
+		colony.createLarva();
+		updateObsProperty("larvas", colony.getHive().getLarvas().size());
 	}
 
 	@OPERATION
 	void delivery() {
 		try {
-			Environment.getInstance().delivery(getCurrentOpAgentId().getAgentName());
+			colony.delivery(getCurrentOpAgentId().getAgentName());
 		} catch (CannotDepositOnThisPositionException | NoLongerHiveException | NoPollenCollectedException e) {
 			failed(e.getMessage());
 		} catch (NullPointerException e) {
@@ -125,7 +139,7 @@ public class HiveArtifact extends Artifact {
 
 	@OPERATION
 	void tempStart(int ammount) {
-		Environment.getInstance().setIntTemp(ammount);
+		colony.setIntTemp(ammount);
 		updateObsProperty("intTemperature", ammount);
 	}
 
@@ -142,19 +156,19 @@ public class HiveArtifact extends Artifact {
 
 		if (ammount != intTemp.intValue()) {
 			intTemp.updateValue(ammount);
-			Environment.getInstance().setIntTemp(ammount);
+			colony.setIntTemp(ammount);
 		}
 	}
 
 	@OPERATION
 	void feedLarva(OpFeedbackParam<Boolean> isEvolving) {
 		try {
-			Larva larvaToEvolve = Environment.getInstance().feedLarva();
+			Larva larvaToEvolve = colony.feedLarva();
 
 			if (larvaToEvolve != null) {
-				Environment.getInstance().removeLarva(larvaToEvolve);
+				colony.removeLarva(larvaToEvolve);
 				isEvolving.set(true);
-				updateObsProperty("larvas", Hive.getInstance().getLarvas().size() - 1);
+				updateObsProperty("larvas", colony.getHive().getLarvas().size() - 1);
 			} else
 				isEvolving.set(false);
 		} catch (InsufficientHoneyException e) {
@@ -162,11 +176,11 @@ public class HiveArtifact extends Artifact {
 		}
 	}
 
-	@INTERNAL_OPERATION
-	void temperatureChange() {
-		while (true) {
-			await_time((int) (Parameters.DELAY_CHANGE_DAY / 10));
+	// run by the simulation loop
+	private void temperatureChange() {
+		if (beginExternalSession()) {
 			updateTemp();
+			endExternalSession(true);
 		}
 	}
 }
\ No newline at end of file
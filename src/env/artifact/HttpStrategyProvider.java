@@ -0,0 +1,81 @@
+// HttpStrategyProvider.java - Shared HTTP plumbing of the strategy providers
+package artifact;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Provider speaking JSON over HTTP. Every provider sends through one
+ * HttpClient (keep-alive, HTTP/2), so connections and TLS handshakes are
+ * reused, and no call blocks the caller.
+ */
+abstract class HttpStrategyProvider implements StrategyProvider {
+    protected static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(TIMEOUT)
+            .build();
+    protected final Gson gson = new Gson();
+    private final AtomicLong lastCallTime = new AtomicLong();
+
+    @Override
+    public boolean tryAcquire() {
+        if (getMinIntervalMillis() <= 0)
+            return true;
+
+        long now = System.currentTimeMillis();
+        long last = lastCallTime.get();
+        return now - last >= getMinIntervalMillis() && lastCallTime.compareAndSet(last, now);
+    }
+
+    @Override
+    public long getMillisUntilNextCall() {
+        return Math.max(0, lastCallTime.get() + getMinIntervalMillis() - System.currentTimeMillis());
+    }
+
+    @Override
+    public CompletableFuture<String> requestStrategy(String systemInstruction, String prompt) {
+        String body = gson.toJson(buildRequest(systemInstruction, prompt));
+        HttpRequest.Builder request = HttpRequest.newBuilder(getUri())
+                .header("Content-Type", "application/json")
+                .timeout(TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        addHeaders(request);
+
+        return HTTP_CLIENT.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200)
+                        throw new CompletionException(
+                                new Exception("API error " + response.statusCode() + ": " + response.body()));
+
+                    System.out.println("[" + getName() + "] API call successful");
+                    return extractText(gson.fromJson(response.body(), JsonObject.class));
+                });
+    }
+
+    protected abstract URI getUri();
+
+    protected void addHeaders(HttpRequest.Builder request) {
+    }
+
+    /**
+     * Request body with the system instruction first, so the server sees the
+     * same prefix on every call and can reuse it
+     */
+    protected abstract JsonObject buildRequest(String systemInstruction, String prompt);
+
+    /**
+     * Text of the reply in the provider's response envelope
+     */
+    protected abstract String extractText(JsonObject response);
+}
@@ -2,13 +2,19 @@
 
 package artifact;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import cartago.Artifact;
+import cartago.GUARD;
 import cartago.INTERNAL_OPERATION;
 import cartago.OPERATION;
-import cartago.ObsProperty;
+import graphic.Colony;
 import graphic.Environment;
+import graphic.FlightEngine;
+import graphic.Renderer;
+import graphic.SimulationClock;
+import graphic.model.HiveGraphic;
 import model.PollenField;
 import model.Position;
 import model.enumeration.Direction;
@@ -19,29 +25,65 @@ import model.exception.NoLongerPollenFieldException;
 import model.exception.PollenIsOverException;
 
 public class MapArtifact extends Artifact {
+	private int publishedDay;
+	private Colony colony;
+	// one listener for all flights, so the engine wakes the artifact once per tick
+	private final FlightEngine.Listener flightListener = this::wakeUp;
+
 	void init() {
-		List<PollenField> pollenFields = Parameters.makePollenFields();
+		init(Parameters.DEFAULT_COLONY, null);
+	}
+
+	void init(String colonyId) {
+		init(colonyId, null);
+	}
 
-		Environment.getInstance().launchGraphicApplication(800, 600, pollenFields);
+	/**
+	 * One map artifact per colony, all views of the same world. The first one
+	 * launches it; the others join with their own hive.
+	 * 
+	 * @param colonyId colony of the bees using this map
+	 * @param renderer "javafx" or "headless"; the melissa.renderer system
+	 *                 property overrides it, and only the first map's counts
+	 */
+	void init(String colonyId, String renderer) {
+		Environment environment = Environment.getInstance();
+		colony = environment.getColony(colonyId);
+		environment.launchGraphicApplication(Parameters.MAP_WIDTH, Parameters.MAP_HEIGHT, Parameters.makePollenFields(), Renderer.create(renderer));
 
 		defineObsProperty("day", 0);
 		defineObsProperty("extTemperature", Parameters.EXTERNAL_TEMPERATURE_START);
 
 		// x, y, width, height
-		defineObsProperty("hive", Parameters.HIVE_X, Parameters.HIVE_Y, Parameters.HIVE_WIDTH, Parameters.HIVE_HEIGHT);
+		HiveGraphic hive = colony.getHiveGraphic();
+		defineObsProperty("hive", hive.getX(), hive.getY(), hive.getWidth(), hive.getHeight());
 
-		for (PollenField pollenField : pollenFields) {
+		for (PollenField pollenField : environment.getPollenFields()) {
 			defineObsProperty("pollenField", pollenField.getStatus().toString(), pollenField.getPosition().getX(),
 					pollenField.getPosition().getY(), pollenField.getWidth(), pollenField.getHeight());
 		}
 
-		execInternalOp("dayChange");
-		execInternalOp("temperatureChange");
+		// day change, pollen regrowth and temperature run on the simulation loop
+		Environment.getInstance().getSimulationLoop().addPublisher(this::publishDay);
+	}
+
+	// once per tick on the loop thread; only opens a session when the day changed
+	private void publishDay() {
+		Environment environment = Environment.getInstance();
+		int today = environment.getDay();
+
+		if (today == publishedDay || !beginExternalSession())
+			return;
+
+		publishedDay = today;
+		getObsProperty("day").updateValue(today);
+		getObsProperty("extTemperature").updateValue(environment.getExtTemperature());
+		endExternalSession(true);
 	}
 
 	@OPERATION
 	void registerBee(String role) {
-		Environment.getInstance().registerBee(getCurrentOpAgentId().getAgentName(), role);
+		colony.registerBee(getCurrentOpAgentId().getAgentName(), role);
 	}
 
 	@OPERATION
@@ -64,7 +106,7 @@ public class MapArtifact extends Artifact {
 		} catch (NullPointerException e) {
 			// Silently ignore - bee was likely killed
 		}
-		await_time(Parameters.DELAY_MOVE_OPERATION);
+		pause(Parameters.DELAY_MOVE_OPERATION);
 	}
 
 	@OPERATION
@@ -76,28 +118,112 @@ public class MapArtifact extends Artifact {
 		} catch (NullPointerException e) {
 			// Silently ignore - bee was likely killed
 		}
-		await_time(Parameters.DELAY_MOVE_OPERATION);
+		pause(Parameters.DELAY_MOVE_OPERATION);
 	}
 
+	/**
+	 * Up to steps pixels toward (x, y) in a single operation, paced like the
+	 * same number of single moves
+	 */
 	@OPERATION
-	void flyTo(int x, int y) {
-		Position beePos = Environment.getInstance().getBeePos(getCurrentOpAgentId().getAgentName());
-		if (beePos == null)
+	void moveToward(int x, int y, int steps) {
+		Environment environment = Environment.getInstance();
+		int slot = environment.getBeeSlot(getCurrentOpAgentId().getAgentName());
+		if (slot < 0)
+			return;
+
+		try {
+			int moved = environment.moveBeeToward(slot, x, y, steps);
+			if (moved > 0)
+				pause(Parameters.DELAY_MOVE_OPERATION * moved);
+		} catch (MovimentOutOfBoundsException e) {
+			failed(e.getMessage());
+		}
+	}
+
+	/**
+	 * Follow a path given as [X1,Y1,X2,Y2,...] or [[X1,Y1],[X2,Y2],...] in a
+	 * single operation, paced like the same pixels flown in single moves
+	 */
+	@OPERATION
+	void movePath(Object[] path) {
+		Environment environment = Environment.getInstance();
+		int slot = environment.getBeeSlot(getCurrentOpAgentId().getAgentName());
+		if (slot < 0)
+			return;
+
+		int[] points;
+		try {
+			points = toPoints(path);
+		} catch (ClassCastException | IllegalArgumentException e) {
+			failed("Invalid path: " + e.getMessage());
 			return;
-		int i = beePos.getX();
-		int j = beePos.getY();
-		if (!(x == i & y == j)) {
-			if (Math.abs(y - j) > Math.abs(x - i))
-				if (y - j > 0)
-					move(i, j + 1);
-				else
-					move(i, j - 1);
-			else if (x - i > 0)
-				move(i + 1, j);
+		}
+
+		try {
+			int pixels = environment.moveBeeAlong(slot, points);
+			pause(Parameters.DELAY_MOVE_OPERATION * Math.max(1, pixels));
+		} catch (MovimentOutOfBoundsException e) {
+			failed(e.getMessage());
+		}
+	}
+
+	private int[] toPoints(Object[] path) {
+		List<Integer> coordinates = new ArrayList<>();
+		for (Object element : path) {
+			if (element instanceof Object[])
+				for (Object coordinate : (Object[]) element)
+					coordinates.add(((Number) coordinate).intValue());
 			else
-				move(i - 1, j);
-			flyTo(x, y);
+				coordinates.add(((Number) element).intValue());
 		}
+
+		if (coordinates.size() % 2 != 0)
+			throw new IllegalArgumentException("odd number of coordinates");
+
+		int[] points = new int[coordinates.size()];
+		for (int i = 0; i < points.length; i++)
+			points[i] = coordinates.get(i);
+		return points;
+	}
+
+	/**
+	 * Register the trip with the environment's flight engine and complete when
+	 * the bee arrives (or dies); the engine moves it meanwhile
+	 */
+	@OPERATION
+	void flyTo(int x, int y) {
+		String beeId = getCurrentOpAgentId().getAgentName();
+		Environment environment = Environment.getInstance();
+		int slot = environment.getBeeSlot(beeId);
+		if (slot < 0)
+			return;
+
+		try {
+			FlightEngine.Flight flight = environment.startFlight(slot, beeId, x, y, flightListener);
+			await("flightEnded", flight);
+		} catch (MovimentOutOfBoundsException e) {
+			failed(e.getMessage());
+		}
+	}
+
+	@GUARD
+	boolean flightEnded(FlightEngine.Flight flight) {
+		return flight.isEnded();
+	}
+
+	// called from the engine thread once per tick with ended flights: an external session makes CArtAgO
+	// re-check every pending guard
+	private void wakeUp() {
+		if (beginExternalSession())
+			endExternalSession(true);
+	}
+
+	// simulated delay, scaled to wall time by the simulation clock
+	private void pause(long millis) {
+		long wallMillis = SimulationClock.getInstance().toWallMillis(millis);
+		if (wallMillis > 0)
+			await_time(wallMillis);
 	}
 
 	@OPERATION
@@ -112,14 +238,15 @@ public class MapArtifact extends Artifact {
 	@OPERATION
 	void collect() {
 		try {
-			String beeId = getCurrentOpAgentId().getAgentName();
-			Position beePos = getPosition(beeId);
-			// Silently return if bee is dead or position is null
-			if (beePos == null) {
+			Environment environment = Environment.getInstance();
+			int slot = environment.getBeeSlot(getCurrentOpAgentId().getAgentName());
+			// Silently return if bee is dead
+			if (slot < 0) {
 				return;
 			}
-			String pollenFieldId = Environment.getInstance().getMatchingPollenFieldId(beePos);
-			Environment.getInstance().collect(pollenFieldId, beeId);
+			String pollenFieldId = environment.getMatchingPollenFieldId(environment.getBeeX(slot),
+					environment.getBeeY(slot));
+			environment.collect(pollenFieldId, slot);
 		} catch (PollenIsOverException | NoLongerPollenFieldException | CannotCollectOnThisPositionException e) {
 			failed(e.getMessage());
 		} catch (NullPointerException e) {
@@ -136,40 +263,4 @@ public class MapArtifact extends Artifact {
 	public Position getPosition(String beeId) {
 		return Environment.getInstance().getBeePos(beeId);
 	}
-
-	@INTERNAL_OPERATION
-	void dayChange() {
-		while (true) {
-			await_time(Parameters.DELAY_CHANGE_DAY);
-			ObsProperty day = getObsProperty("day");
-			int newDay = day.intValue() + 1;
-
-			Environment.getInstance().changeDay(newDay);
-			day.updateValue(newDay);
-			execInternalOp("updatePollenFields");
-		}
-	}
-
-	@INTERNAL_OPERATION
-	void temperatureChange() {
-		while (true) {
-			await_time(Parameters.DELAY_CHANGE_DAY);
-			ObsProperty day = getObsProperty("day");
-			int today = day.intValue();
-
-			int month = today % 12; // for seasons of the year
-			int newTemperature = (int) (Parameters.AVERAGE_TEMPERATURE
-					+ Parameters.TERMIC_AMPLITUDE * Math.sin(2 * Math.PI * (month / 12.)));
-
-			Environment.getInstance().changeExtTemp(newTemperature);
-
-			ObsProperty temperature = getObsProperty("extTemperature");
-			temperature.updateValue(newTemperature);
-		}
-	}
-
-	@INTERNAL_OPERATION
-	void updatePollenFields() {
-		Environment.getInstance().incrementPollenFields();
-	}
 }
@@ -0,0 +1,129 @@
+// OpenAICompatibleProvider.java - Any OpenAI-compatible chat endpoint as strategy provider
+package artifact;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Chat completions endpoint in the OpenAI format, as served by local model
+ * runners (llama.cpp, Ollama, vLLM...). Configured with the system properties
+ * melissa.strategy.url, melissa.strategy.model and, if the server wants one,
+ * melissa.strategy.apiKey. Local servers have no quota, so there is no rate
+ * limit between calls. The rules are the system message, a prefix llama.cpp and
+ * vLLM keep cached between calls, and the reply is constrained with a
+ * json_schema response_format.
+ */
+public class OpenAICompatibleProvider extends HttpStrategyProvider {
+    public static final String URL_PROPERTY = "melissa.strategy.url";
+    public static final String MODEL_PROPERTY = "melissa.strategy.model";
+    public static final String API_KEY_PROPERTY = "melissa.strategy.apiKey";
+
+    private static final JsonObject RESPONSE_FORMAT = responseFormat();
+
+    private final URI uri;
+    private final String model;
+    private final String apiKey;
+
+    public OpenAICompatibleProvider() {
+        this(System.getProperty(URL_PROPERTY, "http://localhost:8080/v1/chat/completions"),
+                System.getProperty(MODEL_PROPERTY, "local"), System.getProperty(API_KEY_PROPERTY));
+    }
+
+    public OpenAICompatibleProvider(String url, String model, String apiKey) {
+        this.uri = URI.create(url);
+        this.model = model;
+        this.apiKey = apiKey;
+        System.out.println("[" + getName() + "] Using " + url + " (model " + model + ")");
+    }
+
+    @Override
+    public String getName() {
+        return "OpenAICompatible";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public long getMinIntervalMillis() {
+        return 0;
+    }
+
+    @Override
+    protected URI getUri() {
+        return uri;
+    }
+
+    @Override
+    protected void addHeaders(HttpRequest.Builder request) {
+        if (apiKey != null && !apiKey.isEmpty())
+            request.header("Authorization", "Bearer " + apiKey);
+    }
+
+    // strict JSON schema of the decision
+    private static JsonObject responseFormat() {
+        JsonObject properties = new JsonObject();
+        properties.add(StrategyPrompt.X, type("integer"));
+        properties.add(StrategyPrompt.Y, type("integer"));
+        properties.add(StrategyPrompt.REASON, type("string"));
+        JsonArray required = new JsonArray();
+        required.add(StrategyPrompt.X);
+        required.add(StrategyPrompt.Y);
+        required.add(StrategyPrompt.REASON);
+
+        JsonObject schema = type("object");
+        schema.add("properties", properties);
+        schema.add("required", required);
+        schema.addProperty("additionalProperties", false);
+
+        JsonObject jsonSchema = new JsonObject();
+        jsonSchema.addProperty("name", "attack_decision");
+        jsonSchema.addProperty("strict", true);
+        jsonSchema.add("schema", schema);
+
+        JsonObject format = new JsonObject();
+        format.addProperty("type", "json_schema");
+        format.add("json_schema", jsonSchema);
+        return format;
+    }
+
+    private static JsonObject type(String type) {
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", type);
+        return schema;
+    }
+
+    private static JsonObject message(String role, String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", role);
+        message.addProperty("content", content);
+        return message;
+    }
+
+    @Override
+    protected JsonObject buildRequest(String systemInstruction, String prompt) {
+        JsonArray messages = new JsonArray();
+        messages.add(message("system", systemInstruction));
+        messages.add(message("user", prompt));
+
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", model);
+        requestBody.add("messages", messages);
+        requestBody.addProperty("temperature", 0);
+        requestBody.add("response_format", RESPONSE_FORMAT);
+        return requestBody;
+    }
+
+    @Override
+    protected String extractText(JsonObject response) {
+        JsonArray choices = response.getAsJsonArray("choices");
+        if (choices != null && choices.size() > 0)
+            return choices.get(0).getAsJsonObject().getAsJsonObject("message").get("content").getAsString();
+        return "";
+    }
+}
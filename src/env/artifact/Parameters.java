@@ -1,7 +1,10 @@
 package artifact;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import model.PollenField;
 import model.Position;
@@ -9,6 +12,7 @@ import model.Position;
 public class Parameters {
 	/** Mechanics parameters */
 	public static final long DELAY_MOVE_OPERATION = 10;
+	public static final int FLIGHT_STEP_PIXELS = 4;
 	public static final int AMMOUNT_BEE_COLLECT_POLLEN = 10;
 	public static final int LARVA_AMMOUNT_HONEY_FEED = 2;
 	public static final int LARVA_TOTAL_HONEY_TO_EVOLVE = 20;
@@ -17,6 +21,13 @@ public class Parameters {
 	public static final long DELAY_CHANGE_DAY = 10000;
 	public static final int DAILY_POLLEN_AMMOUNT_INCREASE = 10;
 	
+	/** Simulation loop: fixed timestep and the period of each system, in ticks */
+	public static final long TICK_MS = 10;
+	public static final int FLIGHT_TICKS = (int) (FLIGHT_STEP_PIXELS * DELAY_MOVE_OPERATION / TICK_MS);
+	public static final int COMBAT_TICKS = (int) (50 / TICK_MS);
+	public static final int DAY_TICKS = (int) (DELAY_CHANGE_DAY / TICK_MS);
+	public static final int HIVE_TEMPERATURE_TICKS = DAY_TICKS / 10;
+	
 	/** Temperature parameters */
 	public static final int AVERAGE_TEMPERATURE = 25;
 	public static final int EXTERNAL_TEMPERATURE_START = 25;
@@ -34,11 +45,35 @@ public class Parameters {
 	public static final double HIVE_SUPPLY_MEDIUM = 0.6;
 	public static final double HIVE_SUPPLY_HIGH = 0.9;
 	
+	/** Map dimension **/
+	public static final int MAP_WIDTH = 800;
+	public static final int MAP_HEIGHT = 600;
+	
 	/** Hive position and dimension **/
 	public static final int HIVE_X = 649;
 	public static final int HIVE_Y = 449;
 	public static final int HIVE_WIDTH = 150;
 	public static final int HIVE_HEIGHT = 150;
+	/** Least distance between a generated hive and anything else on the map **/
+	public static final int HIVE_MARGIN = 10;
+	
+	/** Colony of agents without a colony(Id) belief, with the hive above **/
+	public static final String DEFAULT_COLONY = "hive1";
+	
+	/** Spatial index bucket size, in pixels **/
+	public static final int SPATIAL_CELL_SIZE = 50;
+	
+	/** LLM decision cache: board quantization in pixels, entries, time to live **/
+	public static final int DECISION_CACHE_CELL = 50;
+	public static final int DECISION_CACHE_SIZE = 512;
+	public static final long DECISION_CACHE_TTL_MS = 10 * 60 * 1000;
+	
+	/** LLM prompt: sentinels listed one by one up to, occupancy grid cell in pixels past that **/
+	public static final int PROMPT_MAX_SENTINELS = 16;
+	public static final int PROMPT_GRID_CELL = 100;
+	
+	/** Initial number of bee slots, the store doubles when full **/
+	public static final int INITIAL_BEE_CAPACITY = 256;
 	
 	/** Pollen fields colors, in % **/
 	public static final double POLLEN_SUPPLY_OVER = 0;
@@ -56,4 +91,51 @@ public class Parameters {
 		
 		return pollenFields;
 	}
+	
+	/** Hive position of each colony, all HIVE_WIDTH x HIVE_HEIGHT **/
+	public static Map<String, Position> makeHivePositions() {
+		Map<String, Position> hives = new LinkedHashMap<>();
+		
+		hives.put(DEFAULT_COLONY, new Position(HIVE_X, HIVE_Y));
+		hives.put("hive2", new Position(250, 449));
+		hives.put("hive3", new Position(400, 150));
+		
+		return hives;
+	}
+	
+	/**
+	 * Hive position of the colony: its preset one from makeHivePositions,
+	 * otherwise the first spot on a 50px grid, scanned row by row, clear of the
+	 * pollen fields, the preset hives and the hives already placed. Null when
+	 * the map has no room left for another hive.
+	 */
+	public static Position makeHivePosition(String colonyId, Collection<Position> placed) {
+		Map<String, Position> presets = makeHivePositions();
+		if (presets.containsKey(colonyId))
+			return presets.get(colonyId);
+		
+		List<PollenField> pollenFields = makePollenFields();
+		for (int y = 0; y + HIVE_HEIGHT <= MAP_HEIGHT; y += 50) {
+			for (int x = 0; x + HIVE_WIDTH <= MAP_WIDTH; x += 50) {
+				boolean free = true;
+				for (PollenField field : pollenFields)
+					free &= !overlaps(x, y, field.getPosition().getX(), field.getPosition().getY(),
+							field.getWidth(), field.getHeight());
+				for (Position hive : presets.values())
+					free &= !overlaps(x, y, hive.getX(), hive.getY(), HIVE_WIDTH, HIVE_HEIGHT);
+				for (Position hive : placed)
+					free &= !overlaps(x, y, hive.getX(), hive.getY(), HIVE_WIDTH, HIVE_HEIGHT);
+				
+				if (free)
+					return new Position(x, y);
+			}
+		}
+		return null;
+	}
+	
+	// a hive at (x, y), grown by HIVE_MARGIN, against a rectangle
+	private static boolean overlaps(int x, int y, int otherX, int otherY, int otherWidth, int otherHeight) {
+		return x - HIVE_MARGIN < otherX + otherWidth && otherX < x + HIVE_WIDTH + HIVE_MARGIN
+				&& y - HIVE_MARGIN < otherY + otherHeight && otherY < y + HIVE_HEIGHT + HIVE_MARGIN;
+	}
 }
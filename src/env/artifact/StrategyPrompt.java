@@ -0,0 +1,160 @@
+// StrategyPrompt.java - Compact board encoding and JSON reply of the LLM
+package artifact;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+
+import model.Position;
+import model.PositionBuffer;
+
+/**
+ * What the Wasp sends to the LLM and how it reads the reply. The rules are a
+ * fixed system instruction, identical on every call, so providers can cache
+ * that prefix; the prompt of a call only holds the board. Up to
+ * PROMPT_MAX_SENTINELS sentinels are listed one by one; past that the board is
+ * a coarse occupancy grid plus one candidate per occupied cell, least crowded
+ * cells first, so the prompt stops growing with the number of sentinels.
+ * <p>
+ * The reply is a JSON object {"x", "y", "reason"}, constrained by a response
+ * schema where the provider supports one, and read with a streaming
+ * JsonReader.
+ */
+public final class StrategyPrompt {
+    public static final String X = "x";
+    public static final String Y = "y";
+    public static final String REASON = "reason";
+
+    public static final String SYSTEM_INSTRUCTION = "You control a wasp predator in a beehive simulation game. "
+            + "Your goal is to hunt sentinel bees efficiently.\n"
+            + "GAME RULES:\n"
+            + "- ATTACK: you kill 1 or 2 sentinels within 50px of you\n"
+            + "- DANGER: if 2+ sentinels are within 100px, they counter-attack and damage you\n"
+            + "- The hive you attack is on the board, between its top-left and bottom-right corners - "
+            + "avoid entering!\n"
+            + "BOARD FORMAT:\n"
+            + "- map <width>x<height>, wasp (<x>,<y>), hive (<x>,<y>)-(<x>,<y>)\n"
+            + "- sentinels <n>: (<x>,<y>) for every sentinel, or on large boards:\n"
+            + "- grid <cell>px: one row of digits per cell row, top first, each the number of sentinels in a "
+            + "<cell>x<cell> cell (9 for 9 or more)\n"
+            + "- candidates <k> of <n>: (<x>,<y>) one sentinel per occupied cell, least crowded cells first\n"
+            + "Choose the BEST attack position: exactly 1 sentinel within 50px (safe kill), fewer than 2 within "
+            + "100px (no counter-attack), sentinels OUTSIDE the hive (they cannot retreat).\n"
+            + "Answer with JSON only: {\"" + X + "\": <int>, \"" + Y + "\": <int>, \"" + REASON
+            + "\": \"<one short line>\"}";
+
+    private StrategyPrompt() {
+    }
+
+    /**
+     * The board of one call, against the hive with the given bounds
+     */
+    public static String build(PositionBuffer sentinelPositions, Position waspPosition, int hiveX, int hiveY,
+            int hiveWidth, int hiveHeight, int mapWidth, int mapHeight) {
+        int count = sentinelPositions.size();
+        StringBuilder sb = new StringBuilder(96 + 12 * Math.min(count, Parameters.PROMPT_MAX_SENTINELS));
+        sb.append("map ").append(mapWidth).append('x').append(mapHeight).append(", wasp ");
+        appendPosition(sb, waspPosition.getX(), waspPosition.getY()).append(", hive ");
+        appendPosition(sb, hiveX, hiveY).append('-');
+        appendPosition(sb, hiveX + hiveWidth, hiveY + hiveHeight).append('\n');
+
+        if (count <= Parameters.PROMPT_MAX_SENTINELS) {
+            sb.append("sentinels ").append(count).append(':');
+            for (int i = 0; i < count; i++)
+                appendPosition(sb.append(' '), sentinelPositions.getX(i), sentinelPositions.getY(i));
+            return sb.append('\n').toString();
+        }
+
+        int cellSize = Parameters.PROMPT_GRID_CELL;
+        int columns = Math.max(1, (mapWidth + cellSize - 1) / cellSize);
+        int rows = Math.max(1, (mapHeight + cellSize - 1) / cellSize);
+        int[] occupancy = new int[columns * rows];
+        // per cell, the sentinel closest to the wasp
+        int[] nearest = new int[columns * rows];
+        long[] nearestDistance = new long[columns * rows];
+        Arrays.fill(nearestDistance, Long.MAX_VALUE);
+
+        for (int i = 0; i < count; i++) {
+            int x = sentinelPositions.getX(i), y = sentinelPositions.getY(i);
+            int column = Math.min(columns - 1, Math.max(0, x / cellSize));
+            int row = Math.min(rows - 1, Math.max(0, y / cellSize));
+            int cell = row * columns + column;
+            occupancy[cell]++;
+
+            long dx = x - waspPosition.getX(), dy = y - waspPosition.getY();
+            if (dx * dx + dy * dy < nearestDistance[cell]) {
+                nearestDistance[cell] = dx * dx + dy * dy;
+                nearest[cell] = i;
+            }
+        }
+
+        sb.append("grid ").append(cellSize).append("px:\n");
+        List<Integer> occupied = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                sb.append((char) ('0' + Math.min(occupancy[cell], 9)));
+                if (occupancy[cell] > 0)
+                    occupied.add(cell);
+            }
+            sb.append('\n');
+        }
+
+        occupied.sort((a, b) -> occupancy[a] != occupancy[b] ? Integer.compare(occupancy[a], occupancy[b])
+                : Long.compare(nearestDistance[a], nearestDistance[b]));
+        int candidates = Math.min(occupied.size(), Parameters.PROMPT_MAX_SENTINELS);
+        sb.append("candidates ").append(candidates).append(" of ").append(count).append(':');
+        for (int i = 0; i < candidates; i++) {
+            int sentinel = nearest[occupied.get(i)];
+            appendPosition(sb.append(' '), sentinelPositions.getX(sentinel), sentinelPositions.getY(sentinel));
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static StringBuilder appendPosition(StringBuilder sb, int x, int y) {
+        return sb.append('(').append(x).append(',').append(y).append(')');
+    }
+
+    /**
+     * The decision in a reply, null if it holds none. Reads the first JSON
+     * object in the text, so a code fence around it does no harm; unknown
+     * fields are skipped and numbers may be quoted or decimal.
+     */
+    public static GeminiService.AttackDecision parse(String text) {
+        int start = text == null ? -1 : text.indexOf('{');
+        if (start < 0)
+            return null;
+
+        StringReader in = new StringReader(text);
+        try (JsonReader reader = new JsonReader(in)) {
+            in.skip(start);
+            reader.setLenient(true);
+
+            int targetX = -1, targetY = -1;
+            String reasoning = "LLM decision";
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (X.equals(name))
+                    targetX = (int) Math.round(reader.nextDouble());
+                else if (Y.equals(name))
+                    targetY = (int) Math.round(reader.nextDouble());
+                else if (REASON.equals(name))
+                    reasoning = reader.nextString();
+                else
+                    reader.skipValue();
+            }
+
+            if (targetX >= 0 && targetY >= 0)
+                return new GeminiService.AttackDecision(targetX, targetY, reasoning);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[StrategyPrompt] Unreadable reply: " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+// StrategyProvider.java - Source of the Wasp's attack strategy text
+package artifact;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A language model the Wasp asks for its next target. The provider sends the
+ * system instruction and the prompt, asks for a JSON reply where the model
+ * supports a response schema, and completes with the text of the reply;
+ * building the prompt and reading the decision stay in StrategyPrompt, so
+ * every provider goes through the same request/parse/act pipeline.
+ */
+public interface StrategyProvider {
+    String PROPERTY = "melissa.strategy";
+    String GEMINI = "gemini";
+    String OPENAI = "openai";
+    String STUB = "stub";
+
+    /**
+     * Provider named by the melissa.strategy system property, or by the given
+     * name if the property is not set; Gemini if neither is. "openai" is any
+     * OpenAI-compatible endpoint (see OpenAICompatibleProvider), "stub" the
+     * embedded stand-in server (see StubStrategyServer).
+     */
+    static StrategyProvider create(String name) {
+        String selected = System.getProperty(PROPERTY, name == null ? GEMINI : name);
+
+        if (GEMINI.equalsIgnoreCase(selected))
+            return new GeminiProvider();
+        else if (OPENAI.equalsIgnoreCase(selected))
+            return new OpenAICompatibleProvider();
+        else if (STUB.equalsIgnoreCase(selected))
+            return StubStrategyServer.getInstance().createProvider();
+
+        throw new IllegalArgumentException("Unknown strategy provider: " + selected);
+    }
+
+    String getName();
+
+    /**
+     * Whether requests can be made at all (e.g. an API key is configured)
+     */
+    boolean isAvailable();
+
+    /**
+     * Least time between two requests, to stay within the provider's quota
+     */
+    long getMinIntervalMillis();
+
+    /**
+     * Claim a request if getMinIntervalMillis has passed since the last one.
+     * Every wasp shares the provider, so the interval holds for the API key,
+     * whatever the number of colonies.
+     */
+    boolean tryAcquire();
+
+    /**
+     * Time left before tryAcquire can succeed, 0 if it can now
+     */
+    long getMillisUntilNextCall();
+
+    /**
+     * Send the prompt after the system instruction, which is the same on every
+     * call; completes with the reply text, or exceptionally with a message
+     * holding the HTTP status (429 when rate limited)
+     */
+    CompletableFuture<String> requestStrategy(String systemInstruction, String prompt);
+}
@@ -0,0 +1,212 @@
+// StubStrategyServer.java - Embedded stand-in for an LLM endpoint
+package artifact;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import model.RandomService;
+
+/**
+ * OpenAI-compatible chat endpoint served in-process, to run and benchmark the
+ * whole request/parse/act pipeline offline. It answers with a JSON decision on
+ * one of the positions in the prompt after a configurable delay, and fails on
+ * purpose at configurable rates. System properties:
+ * <ul>
+ * <li>melissa.stub.latency: delay before each reply, in milliseconds (300)</li>
+ * <li>melissa.stub.errorRate: share of replies that are a 500 error (0)</li>
+ * <li>melissa.stub.rateLimitRate: share of replies that are a 429 (0)</li>
+ * </ul>
+ * Failures are drawn from the seeded RandomService, so a run can be repeated.
+ */
+public class StubStrategyServer {
+    public static final String LATENCY_PROPERTY = "melissa.stub.latency";
+    public static final String ERROR_RATE_PROPERTY = "melissa.stub.errorRate";
+    public static final String RATE_LIMIT_RATE_PROPERTY = "melissa.stub.rateLimitRate";
+
+    private static final Pattern POSITION = Pattern.compile("\\((\\d+),\\s*(\\d+)\\)");
+    private static StubStrategyServer instance;
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final SplittableRandom random = RandomService.forKey("stub-llm");
+    private final Gson gson = new Gson();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public StubStrategyServer(long latencyMillis, double errorRate, double rateLimitRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        // replies overlap like a real server's, each sleeping its own latency
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-llm");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        // the dispatcher thread inherits daemon status from the thread starting it
+        Thread starter = new Thread(server::start);
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        System.out.println("[StubStrategyServer] Listening on port " + getPort() + " (latency " + latencyMillis
+                + " ms, error rate " + errorRate + ", 429 rate " + rateLimitRate + ")");
+    }
+
+    /**
+     * The server configured by the system properties, started on first use
+     */
+    public static synchronized StubStrategyServer getInstance() {
+        if (instance == null) {
+            try {
+                instance = new StubStrategyServer(Long.parseLong(System.getProperty(LATENCY_PROPERTY, "300")),
+                        Double.parseDouble(System.getProperty(ERROR_RATE_PROPERTY, "0")),
+                        Double.parseDouble(System.getProperty(RATE_LIMIT_RATE_PROPERTY, "0")));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not start the stub strategy server", e);
+            }
+        }
+        return instance;
+    }
+
+    public StrategyProvider createProvider() {
+        return new OpenAICompatibleProvider("http://localhost:" + getPort() + "/v1/chat/completions", "stub", null);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+
+        try (InputStreamReader body = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            JsonObject request = gson.fromJson(body, JsonObject.class);
+            // the board is in the last message, after the system instruction
+            JsonArray messages = request.getAsJsonArray("messages");
+            String prompt = messages.get(messages.size() - 1).getAsJsonObject().get("content").getAsString();
+
+            if (latencyMillis > 0)
+                Thread.sleep(latencyMillis);
+
+            double draw;
+            int pick;
+            synchronized (random) {
+                draw = random.nextDouble();
+                pick = random.nextInt(Integer.MAX_VALUE);
+            }
+
+            if (draw < rateLimitRate) {
+                rateLimited.incrementAndGet();
+                reply(exchange, 429, error(429, "Resource has been exhausted, please retry in 2s"));
+            } else if (draw < rateLimitRate + errorRate) {
+                errors.incrementAndGet();
+                reply(exchange, 500, error(500, "Injected stub failure"));
+            } else {
+                reply(exchange, 200, completion(answer(prompt, pick)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reply(exchange, 503, error(503, "Stub server stopping"));
+        } catch (RuntimeException e) {
+            reply(exchange, 400, error(400, "Bad request: " + e.getMessage()));
+        }
+    }
+
+    // one of the sentinel positions, after the first line (the wasp's and the hive's)
+    private String answer(String prompt, int pick) {
+        List<int[]> positions = new ArrayList<>();
+        Matcher matcher = POSITION.matcher(prompt);
+        if (prompt.indexOf('\n') >= 0)
+            matcher.region(prompt.indexOf('\n'), prompt.length());
+        while (matcher.find())
+            positions.add(new int[] { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) });
+
+        int[] target = positions.isEmpty() ? new int[] { 0, 0 } : positions.get(pick % positions.size());
+
+        JsonObject decision = new JsonObject();
+        decision.addProperty(StrategyPrompt.X, target[0]);
+        decision.addProperty(StrategyPrompt.Y, target[1]);
+        decision.addProperty(StrategyPrompt.REASON, "stub server pick");
+        return gson.toJson(decision);
+    }
+
+    private String completion(String text) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", text);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("object", "chat.completion");
+        response.addProperty("model", "stub");
+        response.add("choices", choices);
+        return gson.toJson(response);
+    }
+
+    private String error(int code, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        JsonObject response = new JsonObject();
+        response.add("error", error);
+        return gson.toJson(response);
+    }
+
+    private void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+}
@@ -2,14 +2,21 @@
 package artifact;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import cartago.Artifact;
+import cartago.GUARD;
 import cartago.INTERNAL_OPERATION;
 import cartago.OPERATION;
 import cartago.ObsProperty;
+import graphic.BattleScan;
+import graphic.Colony;
 import graphic.Environment;
+import graphic.SimulationLoop;
+import graphic.model.HiveGraphic;
 
 import model.Position;
+import model.PositionBuffer;
 import model.Wasp;
 
 /**
@@ -18,16 +25,47 @@ import model.Wasp;
  */
 public class WaspArtifact extends Artifact {
 
+    private Colony colony;
     private Wasp wasp;
     private GeminiService geminiService;
     private int targetX = -1;
     private int targetY = -1;
     private String lastReasoning = "";
     private boolean battleActive = true;
+    private final BattleScan battleScan = new BattleScan();
+    private final PositionBuffer sentinelPositions = new PositionBuffer();
+    private final SimulationLoop.Tickable combatSystem = this::combatTick;
+
+    private static final int STEPS_PER_SECOND = (int) (1000 / (Parameters.COMBAT_TICKS * Parameters.TICK_MS));
+
+    private enum BattlePhase {
+        WAITING_FOR_SENTINELS, SETTLING, ENGAGING, MOVING, ENDED
+    }
+
+    // Battle state, kept between combat ticks
+    private BattlePhase battlePhase = BattlePhase.WAITING_FOR_SENTINELS;
+    private int phaseSteps = 0;
+    private int waitCycles = 0;
+    private double initialDistance;
+    private boolean prefetchStarted;
+    // flying to the heuristic target while the LLM decides
+    private boolean speculative;
+    private int moveSteps;
+    private int counterAttackCooldown;
+    private int waspAttackCooldown;
 
     void init() {
-        wasp = Wasp.getInstance();
-        geminiService = GeminiService.getInstance();
+        init(Parameters.DEFAULT_COLONY);
+    }
+
+    /**
+     * @param colonyId colony whose sentinels this wasp hunts
+     */
+    void init(String colonyId) {
+        colony = Environment.getInstance().getColony(colonyId);
+        HiveGraphic hive = colony.getHiveGraphic();
+        wasp = new Wasp(hive.getX(), hive.getY(), hive.getWidth(), hive.getHeight());
+        geminiService = new GeminiService(hive.getX(), hive.getY(), hive.getWidth(), hive.getHeight());
 
         // Observable properties for the agent
         defineObsProperty("wasp_position", wasp.getPosition().getX(), wasp.getPosition().getY());
@@ -37,38 +75,39 @@ public class WaspArtifact extends Artifact {
         defineObsProperty("sentinel_count", 0);
         defineObsProperty("battle_active", true);
 
-        // Start the delayed initialization to wait for JavaFX
+        // Start the delayed initialization to wait for the renderer
         execInternalOp("delayedInit");
     }
 
     /**
-     * Wait for JavaFX to be ready before registering wasp visually
+     * Wait for the map renderer to be ready before registering wasp visually
      */
     @INTERNAL_OPERATION
     void delayedInit() {
 
         // Wait for the graphics to be ready (queen starts the Map artifact which
-        // launches JavaFX)
+        // launches the renderer, JavaFX unless running headless)
         int maxWaitSeconds = 30;
         int waited = 0;
 
         while (waited < maxWaitSeconds) {
             try {
-                // Check if EnvironmentApplication is ready
-                if (graphic.EnvironmentApplication.getInstance() != null) {
+                // Check if the map and its renderer are ready
+                if (Environment.getInstance().isRendererReady()) {
 
                     // Small additional delay to ensure UI components are initialized
                     await_time(2000);
 
                     // Now register the wasp
-                    Environment.getInstance().registerWasp(wasp);
+                    colony.registerWasp(wasp);
 
-                    // Start the battle loop
-                    execInternalOp("battleLoop");
+                    // Start the battle: the simulation loop drives it from now on
+                    Environment.getInstance().getSimulationLoop().schedule(colony.getId(), Parameters.COMBAT_TICKS,
+                            combatSystem);
                     return;
                 }
             } catch (Exception e) {
-                // JavaFX not ready yet
+                // Renderer not ready yet
             }
 
             await_time(1000);
@@ -76,7 +115,7 @@ public class WaspArtifact extends Artifact {
 
         }
 
-        System.err.println("[WaspArtifact] ERROR: JavaFX did not initialize in time! Battle cannot start.");
+        System.err.println("[WaspArtifact] ERROR: Renderer did not initialize in time! Battle cannot start.");
     }
 
     /**
@@ -84,8 +123,7 @@ public class WaspArtifact extends Artifact {
      */
     @OPERATION
     void scanSentinels() {
-        List<Position> sentinelPositions = Environment.getInstance().getSentinelPositions();
-        int count = sentinelPositions.size();
+        int count = colony.getSentinelPositions(sentinelPositions).size();
 
         ObsProperty prop = getObsProperty("sentinel_count");
         prop.updateValue(count);
@@ -94,7 +132,7 @@ public class WaspArtifact extends Artifact {
             System.out.println("[WaspArtifact] No sentinels remaining!");
             battleActive = false;
             getObsProperty("battle_active").updateValue(false);
-            Environment.getInstance().declareWaspVictory();
+            colony.declareWaspVictory();
         }
     }
 
@@ -107,7 +145,7 @@ public class WaspArtifact extends Artifact {
             return;
         }
 
-        List<Position> sentinelPositions = Environment.getInstance().getSentinelPositions();
+        colony.getSentinelPositions(sentinelPositions);
 
         if (sentinelPositions.isEmpty()) {
             targetX = -1;
@@ -117,12 +155,15 @@ public class WaspArtifact extends Artifact {
             return;
         }
 
-        // Query LLM for strategy
-        GeminiService.AttackDecision decision = geminiService.getAttackStrategy(
+        // Query LLM for strategy; the artifact stays free while the call is in flight
+        CompletableFuture<GeminiService.AttackDecision> pending = geminiService.getAttackStrategyAsync(
                 sentinelPositions,
                 wasp.getPosition(),
                 Environment.getInstance().getWidth(),
                 Environment.getInstance().getHeight());
+        pending.thenRunAsync(this::wakeUp);
+        await("decisionReady", pending);
+        GeminiService.AttackDecision decision = pending.join();
 
         targetX = decision.targetX;
         targetY = decision.targetY;
@@ -132,6 +173,17 @@ public class WaspArtifact extends Artifact {
         System.out.println("[WaspArtifact] LLM Target: (" + targetX + ", " + targetY + ") - " + lastReasoning);
     }
 
+    @GUARD
+    boolean decisionReady(CompletableFuture<GeminiService.AttackDecision> pending) {
+        return pending.isDone();
+    }
+
+    // called from an HTTP client thread: an external session makes CArtAgO re-check the pending guards
+    private void wakeUp() {
+        if (beginExternalSession())
+            endExternalSession(true);
+    }
+
     private void updateAttackTarget() {
         ObsProperty prop = getObsProperty("attack_target");
         prop.updateValues(new Object[] { targetX, targetY, lastReasoning });
@@ -150,7 +202,7 @@ public class WaspArtifact extends Artifact {
         wasp.moveToward(targetX, targetY, 2);
 
         // Update position in environment
-        Environment.getInstance().updateWaspPosition(wasp.getPosition());
+        colony.updateWaspPosition(wasp.getPosition());
 
         // Update observable property
         ObsProperty posProp = getObsProperty("wasp_position");
@@ -171,16 +223,20 @@ public class WaspArtifact extends Artifact {
         int maxKills = wasp.getMaxKillsPerAttack();
 
         // Find sentinels within attack radius
-        List<String> killedSentinels = Environment.getInstance().attackSentinelsInRadius(
-                waspPos.getX(), waspPos.getY(), attackRadius, maxKills);
+        colony.scanBattleArea(waspPos.getX(), waspPos.getY(), attackRadius, attackRadius,
+                battleScan);
+        List<String> killedSentinels = colony.killCandidates(battleScan, maxKills);
 
         if (!killedSentinels.isEmpty()) {
             System.out.println("[WaspArtifact] Killed " + killedSentinels.size() + " sentinels: " + killedSentinels);
+
+            // Survivors decide the counter-attack
+            colony.scanBattleArea(waspPos.getX(), waspPos.getY(), attackRadius, attackRadius,
+                    battleScan);
         }
 
         // Check for counter-attack from nearby sentinels
-        int nearbySentinels = Environment.getInstance().countSentinelsInRadius(
-                waspPos.getX(), waspPos.getY(), attackRadius);
+        int nearbySentinels = battleScan.getInnerCount();
 
         if (nearbySentinels >= 2) {
             // Counter-attack! 20 HP damage (10% of 200)
@@ -196,12 +252,12 @@ public class WaspArtifact extends Artifact {
             aliveProp.updateValue(wasp.isAlive());
 
             // Update graphic
-            Environment.getInstance().updateWaspHealth(wasp.getHealth(), wasp.getMaxHealth());
+            colony.updateWaspHealth(wasp.getHealth(), wasp.getMaxHealth());
 
             if (!wasp.isAlive()) {
                 battleActive = false;
                 getObsProperty("battle_active").updateValue(false);
-                Environment.getInstance().declareSentinelVictory();
+                colony.declareSentinelVictory();
             }
         }
     }
@@ -223,224 +279,289 @@ public class WaspArtifact extends Artifact {
     }
 
     /**
-     * Main battle loop - internal operation
+     * Combat system: run by the simulation loop every COMBAT_TICKS (50ms). Each
+     * call is one step of the battle state machine, inside an external session so
+     * observable properties can be updated from the loop thread.
      */
-    @INTERNAL_OPERATION
-    void battleLoop() {
-        // PHASE 1: Wait for sentinels to register in the system
-        int initialSentinelCount = 0;
-        int waitCycles = 0;
-        int maxWaitCycles = 30; // Max 30 seconds
+    private void combatTick(long tick) {
+        if (!beginExternalSession()) {
+            return;
+        }
+        try {
+            battleStep();
+            endExternalSession(true);
+        } catch (RuntimeException e) {
+            endExternalSession(false);
+            throw e;
+        }
+    }
 
-        while (waitCycles < maxWaitCycles) {
-            await_time(1000);
-            waitCycles++;
+    private void battleStep() {
+        switch (battlePhase) {
+            case WAITING_FOR_SENTINELS:
+                waitForSentinels();
+                break;
+            case SETTLING:
+                settle();
+                break;
+            case ENGAGING:
+                engage();
+                break;
+            case MOVING:
+                moveStep();
+                break;
+            case ENDED:
+                break;
+        }
+    }
 
-            List<Position> sentinels = Environment.getInstance().getSentinelPositions();
-            initialSentinelCount = sentinels.size();
+    // PHASE 1: Wait for sentinels to register in the system, checked every second
+    private void waitForSentinels() {
+        if (++phaseSteps < STEPS_PER_SECOND) {
+            return;
+        }
+        phaseSteps = 0;
+        waitCycles++;
 
-            if (initialSentinelCount > 0) {
-                // Wait extra time for all sentinels to register
-                await_time(2000);
-                sentinels = Environment.getInstance().getSentinelPositions();
-                initialSentinelCount = sentinels.size();
-                break;
-            }
+        if (colony.getSentinelPositions(sentinelPositions).size() > 0) {
+            // Wait extra time for all sentinels to register
+            battlePhase = BattlePhase.SETTLING;
+        } else if (waitCycles >= 30) { // Max 30 seconds
+            System.err.println("[WaspArtifact] ERROR: No sentinels found after waiting! Battle cannot start.");
+            endBattleLoop();
+        }
+    }
+
+    private void settle() {
+        if (++phaseSteps < 2 * STEPS_PER_SECOND) {
+            return;
         }
+        phaseSteps = 0;
 
+        int initialSentinelCount = colony.getSentinelPositions(sentinelPositions).size();
         if (initialSentinelCount == 0) {
             System.err.println("[WaspArtifact] ERROR: No sentinels found after waiting! Battle cannot start.");
+            endBattleLoop();
             return;
         }
 
         System.out.println("[WaspArtifact] ===== BATTLE BEGINS: Wasp vs " + initialSentinelCount + " Sentinels! =====");
+        battlePhase = BattlePhase.ENGAGING;
+    }
 
-        // Track that battle has properly started
-        boolean battleProperlyStarted = true;
-
-        // PHASE 2: Main battle loop
-        while (battleActive && wasp.isAlive()) {
-            // === MINIMAL BATTLE CHECK (50ms) ===
-            // Minimal wait - just one quick check before getting next target
-            // Movement loop handles all battle mechanics anyway
-            int maxWaitSteps = 1; // 1 * 50ms = 50ms (minimum for thread sync)
-
-            for (int waitStep = 0; waitStep < maxWaitSteps && wasp.isAlive(); waitStep++) {
-                await_time(50);
-
-                Position waspPos = wasp.getPosition();
-                int waspAttackRadius = 50;
-                int sentinelCounterRadius = 100;
-
-                int nearbyForAttack = Environment.getInstance().countSentinelsInRadius(
-                        waspPos.getX(), waspPos.getY(), waspAttackRadius);
-                int allWithin100px = Environment.getInstance().countSentinelsInRadius(
-                        waspPos.getX(), waspPos.getY(), sentinelCounterRadius);
-
-                // WASP ATTACK: Kill 1 or 2 sentinels within 50px (during wait phase)
-                if ((nearbyForAttack == 1 || nearbyForAttack == 2)) {
-                    List<String> killed = Environment.getInstance().attackSentinelsInRadius(
-                            waspPos.getX(), waspPos.getY(), waspAttackRadius, 2);
-                    if (!killed.isEmpty()) {
-                        System.out.println("[WaspArtifact] *** IDLE ATTACK! Killed " + killed.size() + " sentinel(s)");
-                    }
-                }
+    // PHASE 2: one battle check, then pick the next target
+    private void engage() {
+        if (!battleActive || !wasp.isAlive()) {
+            endBattleLoop();
+            return;
+        }
 
-                // SENTINEL COUNTER-ATTACK: 2+ sentinels within 100px (during wait phase)
-                if (allWithin100px >= 2 && waitStep % 10 == 0) { // Every 500ms
-                    System.out.println(
-                            "[WaspArtifact] COUNTER-ATTACK during wait! " + allWithin100px + " sentinels nearby!");
-                    wasp.takeDamage(10);
-                    updateWaspHealthUI();
-
-                    if (!wasp.isAlive()) {
-                        battleActive = false;
-                        getObsProperty("battle_active").updateValue(false);
-                        Environment.getInstance().declareSentinelVictory();
-                        break;
-                    }
-                }
+        Position waspPos = wasp.getPosition();
+        int waspAttackRadius = 50;
+        int sentinelCounterRadius = 100;
+
+        // One pass for both radii and the victims
+        colony.scanBattleArea(waspPos.getX(), waspPos.getY(), waspAttackRadius,
+                sentinelCounterRadius, battleScan);
+        int nearbyForAttack = battleScan.getInnerCount();
+        int allWithin100px = battleScan.getOuterCount();
+
+        // WASP ATTACK: Kill 1 or 2 sentinels within 50px (during wait phase)
+        if ((nearbyForAttack == 1 || nearbyForAttack == 2)) {
+            List<String> killed = colony.killCandidates(battleScan, 2);
+            if (!killed.isEmpty()) {
+                System.out.println("[WaspArtifact] *** IDLE ATTACK! Killed " + killed.size() + " sentinel(s)");
             }
+        }
 
-            if (!wasp.isAlive())
-                break;
-
-            // Scan for sentinels
-            List<Position> sentinels = Environment.getInstance().getSentinelPositions();
-            ObsProperty countProp = getObsProperty("sentinel_count");
-            countProp.updateValue(sentinels.size());
+        // SENTINEL COUNTER-ATTACK: 2+ sentinels within 100px (during wait phase)
+        if (allWithin100px >= 2) {
+            System.out.println(
+                    "[WaspArtifact] COUNTER-ATTACK during wait! " + allWithin100px + " sentinels nearby!");
+            wasp.takeDamage(10);
+            updateWaspHealthUI();
 
-            // Only declare victory if battle properly started AND no sentinels remain
-            if (sentinels.isEmpty() && battleProperlyStarted) {
-                System.out.println("[WaspArtifact] All sentinels eliminated! Wasp wins!");
+            if (!wasp.isAlive()) {
                 battleActive = false;
                 getObsProperty("battle_active").updateValue(false);
-                Environment.getInstance().declareWaspVictory();
-                break;
+                colony.declareSentinelVictory();
+                endBattleLoop();
+                return;
             }
+        }
+
+        // Scan for sentinels
+        PositionBuffer sentinels = colony.getSentinelPositions(sentinelPositions);
+        ObsProperty countProp = getObsProperty("sentinel_count");
+        countProp.updateValue(sentinels.size());
 
-            // === OPTIMIZED LLM STRATEGY: Use prefetch if available ===
-            GeminiService.AttackDecision decision = geminiService.getPrefetchedDecision();
-
-            if (decision == null) {
-                // No prefetch ready - get synchronously (first iteration or fallback)
-                decision = geminiService.getAttackStrategy(
-                        sentinels,
-                        wasp.getPosition(),
-                        Environment.getInstance().getWidth(),
-                        Environment.getInstance().getHeight());
-            } else {
-                System.out.println("[WaspArtifact] Using prefetched target - NO WAIT!");
+        // Only declare victory if no sentinels remain
+        if (sentinels.isEmpty()) {
+            System.out.println("[WaspArtifact] All sentinels eliminated! Wasp wins!");
+            battleActive = false;
+            getObsProperty("battle_active").updateValue(false);
+            colony.declareWaspVictory();
+            endBattleLoop();
+            return;
+        }
+
+        // === OPTIMIZED LLM STRATEGY: Use prefetch if available ===
+        GeminiService.AttackDecision decision = geminiService.getPrefetchedDecision();
+
+        if (decision == null) {
+            // No prefetch ready - fetch in the background, the loop must not block on the LLM;
+            // fly to the heuristic target meanwhile, switching once the LLM answers
+            geminiService.requestStrategy(
+                    sentinels,
+                    wasp.getPosition(),
+                    Environment.getInstance().getWidth(),
+                    Environment.getInstance().getHeight());
+            startMoving(geminiService.getSpeculativeDecision(sentinels, wasp.getPosition()), true);
+        } else {
+            System.out.println("[WaspArtifact] Using prefetched target - NO WAIT!");
+            startMoving(decision, false);
+        }
+    }
+
+    private void startMoving(GeminiService.AttackDecision decision, boolean speculative) {
+        targetX = decision.targetX;
+        targetY = decision.targetY;
+        lastReasoning = decision.reasoning;
+        updateAttackTarget();
+
+        // Calculate initial distance for prefetch trigger
+        initialDistance = wasp.distanceTo(new Position(targetX, targetY));
+        this.speculative = speculative;
+        // a speculative move already has its fetch in flight
+        prefetchStarted = speculative;
+        moveSteps = 0;
+        counterAttackCooldown = 0;
+        waspAttackCooldown = 0;
+        battlePhase = BattlePhase.MOVING;
+
+        if (!isStillMoving()) {
+            finalAttack();
+        }
+    }
+
+    private boolean isStillMoving() {
+        return wasp.distanceTo(new Position(targetX, targetY)) > 20 && moveSteps < 100 && wasp.isAlive();
+    }
+
+    // Move toward target - one 50ms step per combat tick
+    private void moveStep() {
+        if (speculative && geminiService.hasPrefetchedDecision()) {
+            System.out.println("[WaspArtifact] LLM answered - leaving the heuristic target");
+            startMoving(geminiService.getPrefetchedDecision(), false);
+            if (battlePhase != BattlePhase.MOVING) {
+                return;
             }
+        }
 
-            targetX = decision.targetX;
-            targetY = decision.targetY;
-            lastReasoning = decision.reasoning;
-            updateAttackTarget();
+        wasp.moveToward(targetX, targetY, 3); // Original speed
+        colony.updateWaspPosition(wasp.getPosition());
 
-            // Calculate initial distance for prefetch trigger
-            double initialDistance = wasp.distanceTo(new Position(targetX, targetY));
-            boolean prefetchStarted = false;
-
-            // Move toward target - FASTER battle loop
-            int steps = 0;
-            int counterAttackCooldown = 0;
-            int waspAttackCooldown = 0; // New cooldown for Wasp attacks
-
-            while (wasp.distanceTo(new Position(targetX, targetY)) > 20 && steps < 100 && wasp.isAlive()) {
-                wasp.moveToward(targetX, targetY, 3); // Original speed
-                Environment.getInstance().updateWaspPosition(wasp.getPosition());
-
-                ObsProperty posProp = getObsProperty("wasp_position");
-                posProp.updateValues(new Object[] { wasp.getPosition().getX(), wasp.getPosition().getY() });
-
-                await_time(50); // 50ms - fast reaction
-                steps++;
-                counterAttackCooldown++;
-                waspAttackCooldown++;
-
-                Position waspPos = wasp.getPosition();
-
-                // === BATTLE MECHANICS ===
-                // Wasp attack radius = 50px (kills 1-2 sentinels)
-                int waspAttackRadius = 50;
-                // Sentinel counter-attack range = 100px (3+ sentinels deal damage)
-                int sentinelCounterRadius = 100;
-
-                // Count sentinels in Wasp's attack range (0-50px)
-                int nearbyForAttack = Environment.getInstance().countSentinelsInRadius(
-                        waspPos.getX(), waspPos.getY(), waspAttackRadius);
-
-                // Count ALL sentinels within 100px for counter-attack check
-                int allWithin100px = Environment.getInstance().countSentinelsInRadius(
-                        waspPos.getX(), waspPos.getY(), sentinelCounterRadius);
-
-                // WASP ATTACK: Kill 1 or 2 sentinels within 50px range
-                if ((nearbyForAttack == 1 || nearbyForAttack == 2) && waspAttackCooldown >= 10) {
-                    waspAttackCooldown = 0; // Reset cooldown
-
-                    List<String> killed = Environment.getInstance().attackSentinelsInRadius(
-                            waspPos.getX(), waspPos.getY(), waspAttackRadius, 2); // Max 2 kills
-                    if (!killed.isEmpty()) {
-                        System.out.println(
-                                "[WaspArtifact] *** ATTACK! Killed " + killed.size() + " sentinel(s): " + killed);
-                    }
-                }
+        ObsProperty posProp = getObsProperty("wasp_position");
+        posProp.updateValues(new Object[] { wasp.getPosition().getX(), wasp.getPosition().getY() });
 
-                // SENTINEL COUNTER-ATTACK: 2+ sentinels anywhere within 100px deal damage
-                // This includes sentinels IN the 50px zone - if 2+ are nearby, they fight back!
-                if (allWithin100px >= 2 && counterAttackCooldown >= 20) {
-                    System.out.println(
-                            "[WaspArtifact] COUNTER-ATTACK! " + allWithin100px + " sentinels within 100px!");
-                    wasp.takeDamageAmount(20); // 20 damage (10%)
-                    updateWaspHealthUI();
-                    counterAttackCooldown = 0;
-
-                    if (!wasp.isAlive()) {
-                        battleActive = false;
-                        getObsProperty("battle_active").updateValue(false);
-                        Environment.getInstance().declareSentinelVictory();
-                        break;
-                    }
-                }
+        moveSteps++;
+        counterAttackCooldown++;
+        waspAttackCooldown++;
 
-                // === PREFETCH TRIGGER: Start LLM query at 50% distance ===
-                double remainingDistance = wasp.distanceTo(new Position(targetX, targetY));
-                if (!prefetchStarted && remainingDistance < initialDistance * 0.5) {
-                    // Refresh sentinel positions for prefetch
-                    List<Position> currentSentinels = Environment.getInstance().getSentinelPositions();
-                    geminiService.prefetchNextStrategy(
-                            currentSentinels,
-                            wasp.getPosition(),
-                            Environment.getInstance().getWidth(),
-                            Environment.getInstance().getHeight());
-                    prefetchStarted = true;
-                }
+        Position waspPos = wasp.getPosition();
+
+        // === BATTLE MECHANICS ===
+        // Wasp attack radius = 50px (kills 1-2 sentinels)
+        int waspAttackRadius = 50;
+        // Sentinel counter-attack range = 100px (3+ sentinels deal damage)
+        int sentinelCounterRadius = 100;
+
+        // One pass over nearby cells: sentinels in Wasp's attack range (0-50px),
+        // ALL sentinels within 100px for counter-attack check, and the victims
+        colony.scanBattleArea(waspPos.getX(), waspPos.getY(), waspAttackRadius,
+                sentinelCounterRadius, battleScan);
+        int nearbyForAttack = battleScan.getInnerCount();
+        int allWithin100px = battleScan.getOuterCount();
+
+        // WASP ATTACK: Kill 1 or 2 sentinels within 50px range
+        if ((nearbyForAttack == 1 || nearbyForAttack == 2) && waspAttackCooldown >= 10) {
+            waspAttackCooldown = 0; // Reset cooldown
+
+            List<String> killed = colony.killCandidates(battleScan, 2); // Max 2 kills
+            if (!killed.isEmpty()) {
+                System.out.println(
+                        "[WaspArtifact] *** ATTACK! Killed " + killed.size() + " sentinel(s): " + killed);
             }
+        }
 
-            if (!wasp.isAlive())
-                break;
+        // SENTINEL COUNTER-ATTACK: 2+ sentinels anywhere within 100px deal damage
+        // This includes sentinels IN the 50px zone - if 2+ are nearby, they fight back!
+        if (allWithin100px >= 2 && counterAttackCooldown >= 20) {
+            System.out.println(
+                    "[WaspArtifact] COUNTER-ATTACK! " + allWithin100px + " sentinels within 100px!");
+            wasp.takeDamageAmount(20); // 20 damage (10%)
+            updateWaspHealthUI();
+            counterAttackCooldown = 0;
 
-            // Final attack at target location
-            Position waspPos = wasp.getPosition();
-            int nearbyCount = Environment.getInstance().countSentinelsInRadius(
-                    waspPos.getX(), waspPos.getY(), wasp.getAttackRadius());
+            if (!wasp.isAlive()) {
+                battleActive = false;
+                getObsProperty("battle_active").updateValue(false);
+                colony.declareSentinelVictory();
+                endBattleLoop();
+                return;
+            }
+        }
 
-            if (nearbyCount == 1) {
-                List<String> killed = Environment.getInstance().attackSentinelsInRadius(
-                        waspPos.getX(), waspPos.getY(), wasp.getAttackRadius(), wasp.getMaxKillsPerAttack());
+        // === PREFETCH TRIGGER: Start LLM query at 50% distance ===
+        double remainingDistance = wasp.distanceTo(new Position(targetX, targetY));
+        if (!prefetchStarted && remainingDistance < initialDistance * 0.5) {
+            // Refresh sentinel positions for prefetch
+            PositionBuffer currentSentinels = colony.getSentinelPositions(sentinelPositions);
+            geminiService.prefetchNextStrategy(
+                    currentSentinels,
+                    wasp.getPosition(),
+                    Environment.getInstance().getWidth(),
+                    Environment.getInstance().getHeight());
+            prefetchStarted = true;
+        }
 
-                if (!killed.isEmpty()) {
-                    System.out.println(
-                            "[WaspArtifact] *** ATTACK SUCCESS! Killed " + killed.size() + " sentinels: " + killed);
-                }
-            } else if (nearbyCount >= 2) {
-                System.out.println("[WaspArtifact] Too many bees! Taking damage and retreating...");
-            } else {
-                System.out.println("[WaspArtifact] No targets. Moving to next location...");
+        if (!isStillMoving()) {
+            finalAttack();
+        }
+    }
+
+    // Final attack at target location, then back to engaging on the next step
+    private void finalAttack() {
+        battlePhase = BattlePhase.ENGAGING;
+
+        if (!wasp.isAlive()) {
+            endBattleLoop();
+            return;
+        }
+
+        Position waspPos = wasp.getPosition();
+        colony.scanBattleArea(waspPos.getX(), waspPos.getY(), wasp.getAttackRadius(),
+                wasp.getAttackRadius(), battleScan);
+        int nearbyCount = battleScan.getInnerCount();
+
+        if (nearbyCount == 1) {
+            List<String> killed = colony.killCandidates(battleScan,
+                    wasp.getMaxKillsPerAttack());
+
+            if (!killed.isEmpty()) {
+                System.out.println(
+                        "[WaspArtifact] *** ATTACK SUCCESS! Killed " + killed.size() + " sentinels: " + killed);
             }
+        } else if (nearbyCount >= 2) {
+            System.out.println("[WaspArtifact] Too many bees! Taking damage and retreating...");
+        } else {
+            System.out.println("[WaspArtifact] No targets. Moving to next location...");
         }
+    }
 
+    private void endBattleLoop() {
+        battlePhase = BattlePhase.ENDED;
+        Environment.getInstance().getSimulationLoop().unschedule(combatSystem);
         System.out.println("[WaspArtifact] Battle loop ended. Wasp alive: " + wasp.isAlive());
     }
 
@@ -451,6 +572,6 @@ public class WaspArtifact extends Artifact {
         ObsProperty aliveProp = getObsProperty("wasp_alive");
         aliveProp.updateValue(wasp.isAlive());
 
-        Environment.getInstance().updateWaspHealth(wasp.getHealth(), wasp.getMaxHealth());
+        colony.updateWaspHealth(wasp.getHealth(), wasp.getMaxHealth());
     }
 }
@@ -0,0 +1,97 @@
+package graphic;
+
+import java.util.Arrays;
+
+import model.enumeration.BeeRole;
+
+/**
+ * Reusable result of a single-pass battle proximity query around the wasp.
+ * Holds the number of the colony's sentinels outside its hive within the inner
+ * and outer radius, and the colony's attackable bees within the inner radius
+ * ordered by distance; bees of other colonies are skipped.
+ * Distances are compared squared, and the buffers are only grown, never
+ * reallocated per query.
+ */
+public class BattleScan implements SpatialIndex.Visitor {
+	private BeeStore store;
+	private short home;
+	private int innerRadiusSquared;
+	private int innerCount;
+	private int outerCount;
+	private int candidateCount;
+	private int[] candidates = new int[8];
+	private String[] candidateIds = new String[8];
+	private int[] candidateDistances = new int[8];
+
+	void reset(BeeStore store, short home, int innerRadius) {
+		for (int i = 0; i < candidateCount; i++)
+			candidateIds[i] = null;
+
+		this.store = store;
+		this.home = home;
+		this.innerRadiusSquared = innerRadius * innerRadius;
+		this.innerCount = 0;
+		this.outerCount = 0;
+		this.candidateCount = 0;
+	}
+
+	@Override
+	public void visit(int slot, int x, int y, int distanceSquared) {
+		if (store.getHome(slot) != home)
+			return;
+
+		boolean inner = distanceSquared <= innerRadiusSquared;
+
+		// Only bees OUTSIDE the hive count for attacks and counter-attacks
+		if (x != 0 && y != 0 && store.isOutside(slot)) {
+			outerCount++;
+			if (inner)
+				innerCount++;
+		}
+
+		// Skip queen and bees that were never placed
+		if (inner && (x != 0 || y != 0) && store.getRole(slot) != BeeRole.monarch)
+			addCandidate(slot, distanceSquared);
+	}
+
+	// insertion keeps candidates sorted by distance; the inner circle holds only a few bees
+	private void addCandidate(int slot, int distanceSquared) {
+		if (candidateCount == candidates.length) {
+			int newLength = candidateCount * 2;
+			candidates = Arrays.copyOf(candidates, newLength);
+			candidateIds = Arrays.copyOf(candidateIds, newLength);
+			candidateDistances = Arrays.copyOf(candidateDistances, newLength);
+		}
+
+		int i = candidateCount++;
+		while (i > 0 && candidateDistances[i - 1] > distanceSquared) {
+			candidates[i] = candidates[i - 1];
+			candidateIds[i] = candidateIds[i - 1];
+			candidateDistances[i] = candidateDistances[i - 1];
+			i--;
+		}
+		candidates[i] = slot;
+		candidateIds[i] = store.getId(slot);
+		candidateDistances[i] = distanceSquared;
+	}
+
+	public int getInnerCount() {
+		return innerCount;
+	}
+
+	public int getOuterCount() {
+		return outerCount;
+	}
+
+	public int getCandidateCount() {
+		return candidateCount;
+	}
+
+	public String getCandidateId(int index) {
+		return candidateIds[index];
+	}
+
+	int getCandidateSlot(int index) {
+		return candidates[index];
+	}
+}
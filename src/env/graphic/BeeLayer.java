@@ -0,0 +1,141 @@
+package graphic;
+
+import java.util.Arrays;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import model.Bee;
+import model.enumeration.BeeRole;
+
+/**
+ * Every bee drawn on a single Canvas instead of one scene graph node per bee.
+ * The renderer calls write a packed buffer (x, y and state per store slot)
+ * from the simulation threads; once per pulse, if anything changed, the JavaFX
+ * thread copies it under the lock and draws one pre-rendered sprite per
+ * visible bee, colored by role.
+ */
+class BeeLayer {
+	private static final int RADIUS = 4;
+	private static final int STRIDE = 3;
+	private static final int X = 0, Y = 1, STATE = 2;
+
+	// state: 0 for a free slot, role ordinal + 1 when shown, negated when hidden
+	private final Object lock = new Object();
+	private int[] bees = new int[artifact.Parameters.INITIAL_BEE_CAPACITY * STRIDE];
+	private int end;
+	private boolean dirty;
+
+	// JavaFX thread only
+	private int[] frame = new int[0];
+	private Image[] sprites;
+	private Canvas canvas;
+
+	// under the lock: the first change since the last draw starts the lag clock
+	private void changed() {
+		if (!dirty) {
+			dirty = true;
+			JavaFXConcurrent.getInstance().notePending();
+		}
+	}
+
+	void add(int slot, BeeRole role, int x, int y) {
+		synchronized (lock) {
+			if ((slot + 1) * STRIDE > bees.length)
+				bees = Arrays.copyOf(bees, Math.max((slot + 1) * STRIDE, bees.length * 2));
+			end = Math.max(end, slot + 1);
+
+			int i = slot * STRIDE;
+			bees[i + X] = x;
+			bees[i + Y] = y;
+			bees[i + STATE] = role.ordinal() + 1;
+			changed();
+		}
+	}
+
+	void move(int slot, int x, int y) {
+		synchronized (lock) {
+			int i = slot * STRIDE;
+			bees[i + X] = x;
+			bees[i + Y] = y;
+			changed();
+		}
+	}
+
+	void setVisible(int slot, boolean visible) {
+		synchronized (lock) {
+			int i = slot * STRIDE + STATE;
+			int state = Math.abs(bees[i]);
+			bees[i] = visible ? state : -state;
+			changed();
+		}
+	}
+
+	void setRole(int slot, BeeRole role) {
+		synchronized (lock) {
+			int i = slot * STRIDE + STATE;
+			bees[i] = Integer.signum(bees[i]) * (role.ordinal() + 1);
+			changed();
+		}
+	}
+
+	void remove(int slot) {
+		synchronized (lock) {
+			bees[slot * STRIDE + STATE] = 0;
+			changed();
+		}
+	}
+
+	/**
+	 * The canvas the bees are drawn on, redrawn once per pulse from now on.
+	 * Called on the JavaFX thread once the role colors are known.
+	 */
+	Canvas createCanvas(int width, int height) {
+		BeeRole[] roles = BeeRole.values();
+		sprites = new Image[roles.length];
+		for (BeeRole role : roles)
+			sprites[role.ordinal()] = createSprite(role);
+
+		canvas = new Canvas(width, height);
+		canvas.setMouseTransparent(true);
+		JavaFXConcurrent.getInstance().addFrameTask(this::draw);
+		return canvas;
+	}
+
+	private Image createSprite(BeeRole role) {
+		Canvas sprite = new Canvas(RADIUS * 2, RADIUS * 2);
+		sprite.getGraphicsContext2D().setFill(Bee.getColor(role));
+		sprite.getGraphicsContext2D().fillOval(0, 0, RADIUS * 2, RADIUS * 2);
+
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		return sprite.snapshot(parameters, null);
+	}
+
+	// on the JavaFX thread, after the pulse's updates
+	private void draw() {
+		int count;
+
+		synchronized (lock) {
+			if (!dirty)
+				return;
+			dirty = false;
+
+			count = end;
+			if (frame.length < count * STRIDE)
+				frame = new int[bees.length];
+			System.arraycopy(bees, 0, frame, 0, count * STRIDE);
+		}
+
+		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+		for (int i = 0; i < count * STRIDE; i += STRIDE) {
+			int state = frame[i + STATE];
+			if (state > 0)
+				graphics.drawImage(sprites[state - 1], frame[i + X] - RADIUS, frame[i + Y] - RADIUS);
+		}
+	}
+}
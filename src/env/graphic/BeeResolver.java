@@ -1,37 +1,56 @@
 package graphic;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import graphic.model.BeeGraphic;
-import javafx.scene.shape.Circle;
+import artifact.Parameters;
 import model.Bee;
 
+/**
+ * Registry from bee id to store slot. Operation threads register and remove
+ * bees concurrently with the battle loop reading it, so the map is concurrent
+ * and its views are weakly consistent: readers iterate without copying and
+ * never block writers.
+ */
 public class BeeResolver {
-	private Map<String, BeeGraphic> beeCircles = new HashMap<String, BeeGraphic>();
+	private ConcurrentHashMap<String, Integer> beeSlots = new ConcurrentHashMap<String, Integer>();
+	private BeeStore store = new BeeStore(Parameters.INITIAL_BEE_CAPACITY);
 
-	public Circle createBee(Bee bee, int positionX, int positionY) {
-		Circle circle = new Circle(4, bee.getColor());
-		circle.setLayoutX(positionX);
-		circle.setLayoutY(positionY);
-
-		beeCircles.put(bee.getId(), new BeeGraphic(circle, bee));
-		return circle;
+	/**
+	 * Create the bee's store slot; the slot is the handle used by every hot path
+	 * afterwards
+	 */
+	public int createBee(Bee bee, short homeHive, int positionX, int positionY) {
+		int slot = store.allocate(bee, homeHive, positionX, positionY);
+		beeSlots.put(bee.getId(), slot);
+		return slot;
 	}
 
-	public BeeGraphic getBee(String beeId) {
-		return beeCircles.get(beeId);
+	/**
+	 * Slot of the bee, or -1 if it is not registered
+	 */
+	public int getSlot(String beeId) {
+		Integer slot = beeSlots.get(beeId);
+		return slot == null ? -1 : slot;
 	}
 
-	public void removeBee(String beeId) {
-		beeCircles.remove(beeId);
+	public void removeBee(int slot) {
+		// only drop the mapping if it still points to this slot
+		beeSlots.remove(store.getId(slot), slot);
+		store.release(slot);
 	}
 
 	/**
-	 * Get all bee IDs currently tracked
+	 * Live, read-only view of the bee IDs currently tracked. Iteration is weakly
+	 * consistent: it never throws ConcurrentModificationException and reflects
+	 * registrations and removals made while it runs, or not
 	 */
 	public Set<String> getAllBeeIds() {
-		return beeCircles.keySet();
+		return Collections.unmodifiableSet(beeSlots.keySet());
+	}
+
+	public BeeStore getStore() {
+		return store;
 	}
 }
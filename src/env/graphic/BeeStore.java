@@ -0,0 +1,240 @@
+package graphic;
+
+import java.util.Arrays;
+
+import model.Bee;
+import model.enumeration.BeeRole;
+
+/**
+ * Dense, primitive-backed state of every registered bee. A bee is given an int
+ * slot once at registration and all hot paths (moves, collect/delivery, radius
+ * queries) read and write these arrays by slot instead of going through per-bee
+ * objects. Released slots are recycled.
+ *
+ * Bees of every colony share the store; each slot records the container index
+ * of its home hive. The store also keeps the live set of bees outside their
+ * hive, updated on container transitions, so wasp-facing queries only walk
+ * exposed bees.
+ */
+public class BeeStore {
+	public static final short NO_CONTAINER = 0;
+
+	private static final BeeRole[] ROLES = BeeRole.values();
+
+	private int capacity;
+	private int highWater;
+	private int aliveCount;
+	private int[] freeSlots;
+	private int freeCount;
+
+	private String[] ids;
+	private Bee[] bees;
+	private int[] x;
+	private int[] y;
+	private byte[] role;
+	private short[] container;
+	private short[] home;
+	private boolean[] alive;
+	private int[] pollen;
+	private int[] cell;
+	private int[] cellSlot;
+	private int[] outside;
+	private int outsideCount;
+	private int[] outsidePosition;
+
+	public BeeStore(int initialCapacity) {
+		this.capacity = Math.max(1, initialCapacity);
+		this.freeSlots = new int[capacity];
+		this.ids = new String[capacity];
+		this.bees = new Bee[capacity];
+		this.x = new int[capacity];
+		this.y = new int[capacity];
+		this.role = new byte[capacity];
+		this.container = new short[capacity];
+		this.home = new short[capacity];
+		this.alive = new boolean[capacity];
+		this.pollen = new int[capacity];
+		this.cell = new int[capacity];
+		this.cellSlot = new int[capacity];
+		this.outside = new int[capacity];
+		this.outsidePosition = new int[capacity];
+	}
+
+	public synchronized int allocate(Bee bee, short homeHive, int positionX, int positionY) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (highWater == capacity)
+				grow();
+			slot = highWater++;
+		}
+
+		ids[slot] = bee.getId();
+		bees[slot] = bee;
+		x[slot] = positionX;
+		y[slot] = positionY;
+		role[slot] = (byte) bee.getRole().ordinal();
+		container[slot] = NO_CONTAINER;
+		home[slot] = homeHive;
+		pollen[slot] = 0;
+		cell[slot] = -1;
+		cellSlot[slot] = -1;
+		outsidePosition[slot] = -1;
+		alive[slot] = true;
+		aliveCount++;
+		bee.setSlot(slot);
+
+		return slot;
+	}
+
+	public synchronized void release(int slot) {
+		if (!alive[slot])
+			return;
+
+		alive[slot] = false;
+		setOutside(slot, false);
+		bees[slot].setSlot(-1);
+		ids[slot] = null;
+		bees[slot] = null;
+		aliveCount--;
+		freeSlots[freeCount++] = slot;
+	}
+
+	private void grow() {
+		int newCapacity = capacity * 2;
+
+		freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+		ids = Arrays.copyOf(ids, newCapacity);
+		bees = Arrays.copyOf(bees, newCapacity);
+		x = Arrays.copyOf(x, newCapacity);
+		y = Arrays.copyOf(y, newCapacity);
+		role = Arrays.copyOf(role, newCapacity);
+		container = Arrays.copyOf(container, newCapacity);
+		home = Arrays.copyOf(home, newCapacity);
+		alive = Arrays.copyOf(alive, newCapacity);
+		pollen = Arrays.copyOf(pollen, newCapacity);
+		cell = Arrays.copyOf(cell, newCapacity);
+		cellSlot = Arrays.copyOf(cellSlot, newCapacity);
+		outside = Arrays.copyOf(outside, newCapacity);
+		outsidePosition = Arrays.copyOf(outsidePosition, newCapacity);
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Upper bound (exclusive) of the slots ever handed out; iterate [0, highWater)
+	 * and skip the slots that are not alive
+	 */
+	public int getHighWater() {
+		return highWater;
+	}
+
+	public int getAliveCount() {
+		return aliveCount;
+	}
+
+	public boolean isAlive(int slot) {
+		return alive[slot];
+	}
+
+	public String getId(int slot) {
+		return ids[slot];
+	}
+
+	public Bee getBee(int slot) {
+		return bees[slot];
+	}
+
+	public int getX(int slot) {
+		return x[slot];
+	}
+
+	public int getY(int slot) {
+		return y[slot];
+	}
+
+	public void setPosition(int slot, int newX, int newY) {
+		x[slot] = newX;
+		y[slot] = newY;
+	}
+
+	public BeeRole getRole(int slot) {
+		return ROLES[role[slot]];
+	}
+
+	public void setRole(int slot, BeeRole newRole) {
+		role[slot] = (byte) newRole.ordinal();
+	}
+
+	public short getContainer(int slot) {
+		return container[slot];
+	}
+
+	public void setContainer(int slot, short containerIndex) {
+		container[slot] = containerIndex;
+	}
+
+	/**
+	 * Container index of the hive of the bee's colony
+	 */
+	public short getHome(int slot) {
+		return home[slot];
+	}
+
+	public void setPollen(int slot, int ammount) {
+		pollen[slot] = ammount;
+	}
+
+	public int takePollen(int slot) {
+		int ammount = pollen[slot];
+		pollen[slot] = 0;
+		return ammount;
+	}
+
+	/**
+	 * Add or drop the bee from the outside-hive set; callers hold the store lock
+	 */
+	public void setOutside(int slot, boolean isOutside) {
+		int position = outsidePosition[slot];
+
+		if (isOutside && position < 0) {
+			outside[outsideCount] = slot;
+			outsidePosition[slot] = outsideCount++;
+		} else if (!isOutside && position >= 0) {
+			// swap-remove, same as the spatial index buckets
+			int moved = outside[--outsideCount];
+			outside[position] = moved;
+			outsidePosition[moved] = position;
+			outsidePosition[slot] = -1;
+		}
+	}
+
+	public boolean isOutside(int slot) {
+		return outsidePosition[slot] >= 0;
+	}
+
+	/**
+	 * Number of bees outside the hive; iterate [0, count) with getOutsideSlot
+	 * while holding the store lock
+	 */
+	public int getOutsideCount() {
+		return outsideCount;
+	}
+
+	public int getOutsideSlot(int index) {
+		return outside[index];
+	}
+
+	int getCell(int slot) {
+		return cell[slot];
+	}
+
+	int getCellSlot(int slot) {
+		return cellSlot[slot];
+	}
+
+	void setCell(int slot, int newCell, int newCellSlot) {
+		cell[slot] = newCell;
+		cellSlot[slot] = newCellSlot;
+	}
+}
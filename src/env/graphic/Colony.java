@@ -0,0 +1,296 @@
+package graphic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import graphic.model.HiveGraphic;
+import model.Bee;
+import model.Hive;
+import model.Larva;
+import model.Position;
+import model.PositionBuffer;
+import model.Wasp;
+import model.enumeration.BeeRole;
+import model.enumeration.HoneySupply;
+import model.exception.CannotDepositOnThisPositionException;
+import model.exception.InsufficientHoneyException;
+import model.exception.InsufficientPollenException;
+import model.exception.NoLongerHiveException;
+import model.exception.NoPollenCollectedException;
+
+/**
+ * One colony of the world: its hive (stock, larvae, roster and the container on
+ * the map) and the wasp hunting its sentinels. Colonies share the environment
+ * (map, pollen fields, bee store, spatial index and simulation loop); each one
+ * has its own artifacts and runs its systems on its own loop lane.
+ */
+public class Colony {
+	private final Environment environment;
+	private final String id;
+	private final Hive hive = new Hive();
+	private final HiveGraphic hiveGraphic;
+
+	Colony(Environment environment, String id, HiveGraphic hiveGraphic) {
+		this.environment = environment;
+		this.id = id;
+		this.hiveGraphic = hiveGraphic;
+	}
+
+	/**
+	 * Colony id, also the id of its scheme and its simulation loop lane
+	 */
+	public String getId() {
+		return id;
+	}
+
+	public Hive getHive() {
+		return hive;
+	}
+
+	public HiveGraphic getHiveGraphic() {
+		return hiveGraphic;
+	}
+
+	public Environment getEnvironment() {
+		return environment;
+	}
+
+	private Renderer renderer() {
+		return environment.getRenderer();
+	}
+
+	public void createLarva() {
+		hive.createLarva();
+		renderer().updateLarvaCount(this);
+	}
+
+	public void setHoneyStart(int ammount) {
+		hive.setHoney(ammount);
+		renderer().updateHoneyStatus(this, hive.getStatus());
+	}
+
+	public void setPollenStart(int ammount) {
+		hive.setPollen(ammount);
+	}
+
+	public void registerBee(String beeId, String role) {
+		System.out.println("Registering bee " + beeId + " to role " + role + " in colony " + id);
+		Bee bee = hive.createBee(beeId, role);
+		environment.addBee(bee, this);
+		renderer().updateBeeCount(this);
+	}
+
+	public void setIntTemp(int newTemp) {
+		hive.setTemperature(newTemp);
+		renderer().updateIntTemperature(this, newTemp);
+	}
+
+	public void delivery(String beeId)
+			throws CannotDepositOnThisPositionException, NoLongerHiveException, NoPollenCollectedException {
+		delivery(environment.getBeeSlot(beeId));
+	}
+
+	public void delivery(int slot)
+			throws CannotDepositOnThisPositionException, NoLongerHiveException, NoPollenCollectedException {
+		// System.out.println("Beee "+beeId+" delivering on hive");
+		BeeStore store = environment.getBeeResolver().getStore();
+
+		// Null check for dead bees
+		if (slot < 0 || !store.isAlive(slot)) {
+			return;
+		}
+
+		short container = store.getContainer(slot);
+
+		if (container == BeeStore.NO_CONTAINER)
+			throw new CannotDepositOnThisPositionException("Bee isn't inside field!");
+		else if (container != hiveGraphic.getIndex())
+			throw new NoLongerHiveException("Bee isn't on Hive!");
+
+		int ammount = store.takePollen(slot);
+		if (ammount <= 0)
+			throw new NoPollenCollectedException("Not one pollen is collected!");
+
+		HoneySupply statusBefore = hive.getStatus();
+		hive.addPollen(ammount);
+		HoneySupply statusAfter = hive.getStatus();
+
+		updateHoney(statusBefore, statusAfter);
+	}
+
+	public void updateHoney(HoneySupply statusBefore, HoneySupply statusAfter) {
+		if (!statusBefore.equals(statusAfter))
+			renderer().updateHoneyStatus(this, statusAfter);
+	}
+
+	public void processPollen(int ammount) throws InsufficientPollenException {
+		HoneySupply statusBefore = hive.getStatus();
+
+		hive.subPollen(ammount);
+		hive.addHoney(ammount);
+
+		HoneySupply statusAfter = hive.getStatus();
+
+		updateHoney(statusBefore, statusAfter);
+	}
+
+	public void eat(int ammount) throws InsufficientHoneyException {
+		hive.subHoney(ammount);
+	}
+
+	public Larva feedLarva() throws InsufficientHoneyException {
+		HoneySupply statusBefore = hive.getStatus();
+
+		Larva larva = hive.feedLarva();
+
+		HoneySupply statusAfter = hive.getStatus();
+		updateHoney(statusBefore, statusAfter);
+
+		return larva;
+	}
+
+	public void removeLarva(Larva larva) {
+		hive.removeLarva(larva);
+		renderer().updateLarvaCount(this);
+	}
+
+	/* ========== WASP BATTLE SYSTEM ========== */
+
+	private Wasp wasp;
+	private volatile boolean battleActive = false;
+
+	/**
+	 * Register the wasp predator hunting this colony
+	 */
+	public void registerWasp(Wasp wasp) {
+		this.wasp = wasp;
+		this.battleActive = true;
+		System.out.println("[Colony " + id + "] Wasp registered at position (" +
+				wasp.getPosition().getX() + ", " + wasp.getPosition().getY() + ")");
+
+		renderer().addWasp(this, wasp);
+	}
+
+	/**
+	 * Fill the buffer with the positions of this colony's bees outside its hive
+	 * (queen and never placed bees excluded). Only the outside-hive live set is
+	 * walked; an empty buffer means no sentinel is left, which triggers the Wasp
+	 * victory.
+	 */
+	public PositionBuffer getSentinelPositions(PositionBuffer positions) {
+		BeeStore store = environment.getBeeResolver().getStore();
+		short home = hiveGraphic.getIndex();
+		positions.clear();
+
+		synchronized (store) {
+			for (int i = 0; i < store.getOutsideCount(); i++) {
+				int slot = store.getOutsideSlot(i);
+				int x = store.getX(slot), y = store.getY(slot);
+
+				if (store.getHome(slot) == home && (x != 0 || y != 0) && store.getRole(slot) != BeeRole.monarch)
+					positions.add(x, y);
+			}
+		}
+
+		return positions;
+	}
+
+	/**
+	 * Update wasp position on the map
+	 */
+	public void updateWaspPosition(Position newPosition) {
+		if (wasp != null) {
+			renderer().updateWaspPosition(this, newPosition);
+
+			// Notify nearby sentinels about wasp position
+			notifySentinelsAboutWasp(newPosition);
+		}
+	}
+
+	/**
+	 * Update wasp health display
+	 */
+	public void updateWaspHealth(int health, int maxHealth) {
+		renderer().updateWaspHealth(this, health, maxHealth);
+	}
+
+	/**
+	 * Single pass over the grid cells around the wasp: fills the scan with this
+	 * colony's sentinel counts within both radii and its attackable bees within
+	 * the inner radius, closest first
+	 */
+	public void scanBattleArea(int centerX, int centerY, int innerRadius, int outerRadius, BattleScan scan) {
+		scan.reset(environment.getBeeResolver().getStore(), hiveGraphic.getIndex(), innerRadius);
+		environment.getSpatialIndex().forEachInRadius(centerX, centerY, Math.max(innerRadius, outerRadius), scan);
+	}
+
+	/**
+	 * Kill up to maxKills of the scanned candidates, closest first, and return
+	 * their IDs
+	 */
+	public List<String> killCandidates(BattleScan scan, int maxKills) {
+		List<String> killedIds = new ArrayList<>();
+
+		for (int i = 0; i < scan.getCandidateCount() && killedIds.size() < maxKills; i++) {
+			int slot = scan.getCandidateSlot(i);
+			String beeId = scan.getCandidateId(i);
+
+			// Another thread may have removed the bee since the scan
+			if (environment.removeBee(slot, beeId) == null)
+				continue;
+
+			killedIds.add(beeId);
+			renderer().updateBeeCount(this);
+		}
+
+		return killedIds;
+	}
+
+	/**
+	 * Notify sentinels about wasp presence (via Jason runtime if needed)
+	 */
+	private void notifySentinelsAboutWasp(Position waspPos) {
+		// This would be called to trigger belief updates in agents
+		// For now, the wasp artifact handles the battle loop directly
+	}
+
+	/**
+	 * Declare wasp as the winner
+	 */
+	public void declareWaspVictory() {
+		if (!battleActive)
+			return;
+		battleActive = false;
+
+		System.out.println("========================================");
+		System.out.println("   LLM-based Wasp Agent WINNER! (" + id + ")");
+		System.out.println("   All sentinels have been eliminated!   ");
+		System.out.println("========================================");
+
+		renderer().showVictoryScreen(this, true);
+	}
+
+	/**
+	 * Declare sentinels as the winners
+	 */
+	public void declareSentinelVictory() {
+		if (!battleActive)
+			return;
+		battleActive = false;
+
+		System.out.println("========================================");
+		System.out.println("   JaCaMo-based Sentinels WINNER! (" + id + ")");
+		System.out.println("   The wasp has been defeated!   ");
+		System.out.println("========================================");
+
+		renderer().showVictoryScreen(this, false);
+	}
+
+	public boolean isBattleActive() {
+		return battleActive;
+	}
+
+	public Wasp getWasp() {
+		return wasp;
+	}
+}
@@ -0,0 +1,70 @@
+package graphic;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Reusable result of MapResolver.sweep: the containers a straight move passes
+ * through, in the order they are entered. The last entry is the container at
+ * the destination (BeeStore.NO_CONTAINER if none).
+ */
+public class ContainerSweep implements IntConsumer {
+	private short[] visits = new short[8];
+	private double[] times = new double[8];
+	private int count;
+	final double[] window = new double[2];
+	// containers near the move, each once, to clip against
+	private int[] candidates = new int[8];
+	private int candidateCount;
+
+	void clear() {
+		count = 0;
+		candidateCount = 0;
+	}
+
+	// fed by the region index lookup, without a lambda per move
+	@Override
+	public void accept(int containerIndex) {
+		for (int i = 0; i < candidateCount; i++) {
+			if (candidates[i] == containerIndex)
+				return;
+		}
+
+		if (candidateCount == candidates.length)
+			candidates = Arrays.copyOf(candidates, candidateCount * 2);
+		candidates[candidateCount++] = containerIndex;
+	}
+
+	int getCandidateCount() {
+		return candidateCount;
+	}
+
+	int getCandidate(int index) {
+		return candidates[index];
+	}
+
+	// insertion keeps the visits ordered by entry time; a move crosses only a few containers
+	void add(short containerIndex, double time) {
+		if (count == visits.length) {
+			visits = Arrays.copyOf(visits, count * 2);
+			times = Arrays.copyOf(times, count * 2);
+		}
+
+		int i = count++;
+		while (i > 0 && times[i - 1] > time) {
+			visits[i] = visits[i - 1];
+			times[i] = times[i - 1];
+			i--;
+		}
+		visits[i] = containerIndex;
+		times[i] = time;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public short getVisit(int index) {
+		return visits[index];
+	}
+}
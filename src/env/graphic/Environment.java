@@ -1,52 +1,60 @@
 package graphic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import artifact.Parameters;
-import graphic.model.BeeContainer;
-import graphic.model.BeeGraphic;
+import graphic.model.HiveGraphic;
 import graphic.model.PollenFieldGraphic;
-import javafx.application.Application;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Rectangle;
 import model.Bee;
-import model.Hive;
-import model.Larva;
 import model.PollenField;
+import model.PollenFieldIndex;
 import model.Position;
-import model.RandomUtils;
-import model.Wasp;
-import model.enumeration.BeeRole;
+import model.RandomService;
 import model.enumeration.Direction;
 
-import model.enumeration.HoneySupply;
 import model.enumeration.PollenSupply;
 import model.exception.CannotCollectOnThisPositionException;
-import model.exception.CannotDepositOnThisPositionException;
-import model.exception.InsufficientHoneyException;
-import model.exception.InsufficientPollenException;
 import model.exception.InvalidMovimentException;
 import model.exception.MovimentOutOfBoundsException;
-import model.exception.NoLongerHiveException;
 import model.exception.NoLongerPollenFieldException;
-import model.exception.NoPollenCollectedException;
 import model.exception.PollenIsOverException;
 
+/**
+ * The world shared by every colony: the map and its pollen fields, the bee
+ * store and spatial index, flights, the day cycle, the simulation loop and the
+ * renderer. Per-colony state (hive, roster, wasp battle) lives in Colony.
+ */
 public class Environment {
 	private static Environment instance = null;
 	private int width;
 	private int height;
 	private int extTemperature;
+	private volatile int day;
 	private BeeResolver beeResolver;
 	private PollenFieldResolver pollenFieldResolver;
 	private MapResolver mapResolver;
+	private SpatialIndex spatialIndex;
+	private ContainerSweep containerSweep = new ContainerSweep();
 	private List<PollenField> pollenFields;
+	private PollenFieldIndex pollenFieldIndex;
+	private FlightEngine flightEngine;
+	private SimulationLoop simulationLoop;
+	private Map<String, Colony> colonies = new LinkedHashMap<>();
+	// colony by the container index of its hive, the bee store's home
+	private volatile Colony[] coloniesByHive = new Colony[0];
+	// shows nothing until the map is launched with the selected renderer
+	private Renderer renderer = new HeadlessRenderer();
 
 	private Environment() {
 		System.out.println("Creating BeeEnvironment");
 		this.beeResolver = new BeeResolver();
 		this.pollenFieldResolver = new PollenFieldResolver();
+		this.simulationLoop = new SimulationLoop(SimulationClock.getInstance());
 	}
 
 	public static Environment getInstance() {
@@ -56,105 +64,313 @@ public class Environment {
 		return instance;
 	}
 
-	private void addBee(Bee bee) {
-		int hiveX = (int) mapResolver.getHive().getRectangle().getLayoutX();
-		int hiveY = (int) mapResolver.getHive().getRectangle().getLayoutY();
-		int hiveMaxX = hiveX + (int) mapResolver.getHive().getRectangle().getWidth() - 1;
-		int hiveMaxY = hiveY + (int) mapResolver.getHive().getRectangle().getHeight() - 1;
-		int x = RandomUtils.getRandom(hiveX, hiveMaxX);
-		int y = RandomUtils.getRandom(hiveY, hiveMaxY);
+	/**
+	 * The colony with the given id, created with its hive on first use: at its
+	 * preset position, or wherever the map has room (see
+	 * Parameters.makeHivePosition)
+	 */
+	public synchronized Colony getColony(String colonyId) {
+		Colony colony = colonies.get(colonyId);
+		if (colony != null)
+			return colony;
+
+		List<Position> placed = new ArrayList<>();
+		for (Colony other : colonies.values())
+			placed.add(new Position(other.getHiveGraphic().getX(), other.getHiveGraphic().getY()));
+
+		Position position = Parameters.makeHivePosition(colonyId, placed);
+		if (position == null)
+			throw new IllegalStateException("No room left on the map for the hive of colony " + colonyId);
+
+		colony = new Colony(this, colonyId, new HiveGraphic(colonyId, position.getX(), position.getY()));
+		colonies.put(colonyId, colony);
+
+		if (mapResolver != null)
+			addColonyToMap(colony);
+		return colony;
+	}
+
+	public synchronized List<Colony> getColonies() {
+		return new ArrayList<>(colonies.values());
+	}
+
+	private void addColonyToMap(Colony colony) {
+		mapResolver.addHive(colony.getHiveGraphic());
+
+		short index = colony.getHiveGraphic().getIndex();
+		Colony[] byHive = Arrays.copyOf(coloniesByHive, Math.max(coloniesByHive.length, index + 1));
+		byHive[index] = colony;
+		coloniesByHive = byHive;
+
+		renderer.addColony(colony);
+	}
+
+	/**
+	 * Colony the bee in the slot belongs to
+	 */
+	public Colony getColonyOf(int slot) {
+		return coloniesByHive[beeResolver.getStore().getHome(slot)];
+	}
+
+	int addBee(Bee bee, Colony colony) {
+		HiveGraphic hive = colony.getHiveGraphic();
+		int hiveX = hive.getX();
+		int hiveY = hive.getY();
+		int hiveMaxX = hiveX + hive.getWidth() - 1;
+		int hiveMaxY = hiveY + hive.getHeight() - 1;
+		// the bee's own stream, so its start position only depends on the run seed
+		SplittableRandom random = RandomService.forBee(bee.getId());
+		int x = RandomService.nextInt(random, hiveX, hiveMaxX);
+		int y = RandomService.nextInt(random, hiveY, hiveMaxY);
 
 		// System.out.println("Random position:
 		// ("+hiveX+","+hiveMaxX+"),("+hiveY+","+hiveMaxY+") randomized:
 		// ("+x+","+y+")");
 
-		bee.setPosition(x, y);
-		beeResolver.createBee(bee, x, y);
-		BeeGraphic beeGraphic = beeResolver.getBee(bee.getId());
-		beeGraphic.setInsideContainer(mapResolver.getHive());
-		mapResolver.getHive().addBee(beeGraphic);
+		BeeStore store = beeResolver.getStore();
+
+		synchronized (store) {
+			int slot = beeResolver.createBee(bee, hive.getIndex(), x, y);
+			updateContainer(slot, hive.getIndex());
+			spatialIndex.insert(slot);
+			renderer.addBee(slot, bee, x, y);
+			return slot;
+		}
+	}
+
+	/**
+	 * Store slot of a registered bee, -1 if there is none. Callers that act on
+	 * the same bee repeatedly resolve it once and use the slot-based methods.
+	 */
+	public int getBeeSlot(String beeId) {
+		return beeResolver.getSlot(beeId);
+	}
+
+	/**
+	 * Whether the slot still belongs to the given bee (it may have been killed and
+	 * the slot recycled)
+	 */
+	public boolean isSameBee(int slot, String beeId) {
+		BeeStore store = beeResolver.getStore();
+		return store.isAlive(slot) && beeId.equals(store.getId(slot));
+	}
+
+	public int getBeeX(int slot) {
+		return beeResolver.getStore().getX(slot);
+	}
+
+	public int getBeeY(int slot) {
+		return beeResolver.getStore().getY(slot);
 	}
 
 	public Position getBeePos(String beeId) {
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		if (beeGraphic == null)
+		int slot = beeResolver.getSlot(beeId);
+		if (slot < 0)
 			return null;
-		Bee bee = beeGraphic.getBee();
-		return bee.getPosition();
+		return new Position(getBeeX(slot), getBeeY(slot));
 	}
 
 	public void moveBee(String beeId, Direction direction)
 			throws MovimentOutOfBoundsException, InvalidMovimentException {
-		validateMoviment(beeId, direction);
-		// System.out.println("Moving bee "+beeId+" to "+direction.toString());
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		Bee bee = beeGraphic.getBee();
+		moveBee(beeResolver.getSlot(beeId), direction);
+	}
 
-		boolean beforeInsideContainer = mapResolver.hasContainer(bee.getPosition());
+	public void moveBee(int slot, Direction direction)
+			throws MovimentOutOfBoundsException, InvalidMovimentException {
+		// System.out.println("Moving bee "+beeId+" to "+direction.toString());
+		if (slot < 0)
+			return;
+		int x = getBeeX(slot), y = getBeeY(slot);
 
-		mapResolver.moveBee(bee, direction);
+		if (direction.equals(Direction.LEFT))
+			x--;
+		else if (direction.equals(Direction.RIGHT))
+			x++;
+		else if (direction.equals(Direction.UP))
+			y--;
+		else if (direction.equals(Direction.DOWN))
+			y++;
 
-		postMoviment(beeGraphic, bee, beforeInsideContainer);
+		moveBee(slot, x, y);
 	}
 
 	public void moveBee(String beeId, int x, int y) throws MovimentOutOfBoundsException, InvalidMovimentException {
+		moveBee(beeResolver.getSlot(beeId), x, y);
+	}
+
+	public void moveBee(int slot, int x, int y) throws MovimentOutOfBoundsException, InvalidMovimentException {
 		validateMoviment(x, y);
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		Bee bee = beeGraphic.getBee();
 
-		boolean beforeInsideContainer = mapResolver.hasContainer(bee.getPosition());
+		BeeStore store = beeResolver.getStore();
 
-		bee.setPosition(x, y);
+		synchronized (store) {
+			// the wasp may have killed the bee meanwhile
+			if (slot < 0 || !store.isAlive(slot))
+				return;
 
-		postMoviment(beeGraphic, bee, beforeInsideContainer);
+			store.setPosition(slot, x, y);
+			spatialIndex.move(slot);
+			updateContainer(slot, mapResolver.getContainerIndex(x, y));
+			renderer.moveBee(slot, x, y);
+		}
 	}
 
-	private void postMoviment(BeeGraphic beeGraphic, Bee bee, boolean beforeInsideContainer) {
-		boolean afterInsideContainer = mapResolver.hasContainer(bee.getPosition());
+	/**
+	 * Move the bee up to maxSteps pixels toward the target in one go, each step
+	 * along the axis with the larger remaining distance (the same path flyTo
+	 * takes pixel by pixel). Every step goes through the container lookup, so
+	 * fields crossed on the way are entered and left. Returns the number of
+	 * steps applied, 0 if the bee is already there or no longer alive.
+	 */
+	public int moveBeeToward(int slot, int targetX, int targetY, int maxSteps)
+			throws MovimentOutOfBoundsException {
+		validateMoviment(targetX, targetY);
 
-		if (!beforeInsideContainer && afterInsideContainer) {
-			BeeContainer beeContainer = mapResolver.getContainer(bee.getPosition());
-			beeGraphic.setInsideContainer(beeContainer);
-			beeContainer.addBee(beeGraphic);
-		} else if (beforeInsideContainer && !afterInsideContainer) {
-			BeeContainer beeContainer = beeGraphic.getInsideContainer();
-			beeGraphic.setInsideContainer(null);
-			beeContainer.removeBee(beeGraphic);
-		}
+		BeeStore store = beeResolver.getStore();
+		int x, y, steps = 0;
 
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
+		synchronized (store) {
+			if (slot < 0 || !store.isAlive(slot))
+				return 0;
 
-			@Override
-			public void run() {
-				beeGraphic.getCircle().setLayoutX(bee.getPosition().getX());
-				beeGraphic.getCircle().setLayoutY(bee.getPosition().getY());
+			x = store.getX(slot);
+			y = store.getY(slot);
 
-				// if (removeNodeFinal) {
-				//// EnvironmentApplication.instance.removeBee(beeGraphic.getCircle());
-				// }
-				//
-				// if (addeNodeFinal) {
-				//// EnvironmentApplication.instance.addBee(beeGraphic.getCircle());
-				// }
+			while (steps < maxSteps && (x != targetX || y != targetY)) {
+				if (Math.abs(targetY - y) > Math.abs(targetX - x))
+					y += Integer.signum(targetY - y);
+				else
+					x += Integer.signum(targetX - x);
+
+				updateContainer(slot, mapResolver.getContainerIndex(x, y));
+				steps++;
 			}
-		});
+
+			store.setPosition(slot, x, y);
+			spatialIndex.move(slot);
+			if (steps > 0)
+				renderer.moveBee(slot, x, y);
+		}
+
+		return steps;
 	}
 
-	private void validateMoviment(String beeId, Direction direction)
-			throws MovimentOutOfBoundsException, InvalidMovimentException {
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		int x = beeGraphic.getBee().getPosition().getX(), y = beeGraphic.getBee().getPosition().getY();
+	/**
+	 * Move the bee in a straight line toward the target, by at most distance
+	 * pixels. Container transitions come from sweeping the whole segment, so a
+	 * long step across a small field still enters and leaves it. Returns true if
+	 * the bee moved.
+	 */
+	public boolean moveBeeBy(int slot, int targetX, int targetY, int distance) throws MovimentOutOfBoundsException {
+		validateMoviment(targetX, targetY);
+
+		BeeStore store = beeResolver.getStore();
+		int x, y;
+
+		synchronized (store) {
+			if (slot < 0 || !store.isAlive(slot))
+				return false;
+
+			int fromX = store.getX(slot), fromY = store.getY(slot);
+			int dx = targetX - fromX, dy = targetY - fromY;
+			double length = Math.sqrt((double) dx * dx + (double) dy * dy);
+
+			if (length <= distance) {
+				x = targetX;
+				y = targetY;
+			} else {
+				x = fromX + (int) Math.round(dx * distance / length);
+				y = fromY + (int) Math.round(dy * distance / length);
+			}
 
-		if (direction.equals(Direction.LEFT))
-			x--;
-		else if (direction.equals(Direction.RIGHT))
-			x++;
-		else if (direction.equals(Direction.UP))
-			y--;
-		else if (direction.equals(Direction.DOWN))
-			y++;
+			if (x == fromX && y == fromY)
+				return false;
+
+			// the sweep buffer is shared, the store lock guards it
+			mapResolver.sweep(fromX, fromY, x, y, containerSweep);
+			for (int i = 0; i < containerSweep.getCount(); i++)
+				updateContainer(slot, containerSweep.getVisit(i));
+
+			store.setPosition(slot, x, y);
+			spatialIndex.move(slot);
+			renderer.moveBee(slot, x, y);
+		}
 
+		return true;
+	}
+
+	/**
+	 * Move the bee through every point of the path, given as x,y pairs, in one
+	 * go. The whole path is validated first, so an invalid point moves nothing.
+	 * Each leg, from the bee's position to the first point and then point to
+	 * point, is swept like a moveBeeBy step, so a leg across a field enters and
+	 * leaves it. Returns the pixels travelled, counted like single moves (one
+	 * axis per pixel), so the caller can pace the path by its length.
+	 */
+	public int moveBeeAlong(int slot, int[] path) throws MovimentOutOfBoundsException {
+		for (int i = 0; i + 1 < path.length; i += 2)
+			validateMoviment(path[i], path[i + 1]);
+
+		BeeStore store = beeResolver.getStore();
+		int points = path.length / 2;
+
+		if (points == 0)
+			return 0;
+
+		synchronized (store) {
+			if (slot < 0 || !store.isAlive(slot))
+				return 0;
+
+			int x = store.getX(slot), y = store.getY(slot), pixels = 0;
+			for (int i = 0; i < points; i++) {
+				int toX = path[i * 2], toY = path[i * 2 + 1];
+				if (toX == x && toY == y)
+					continue;
+
+				// the sweep buffer is shared, the store lock guards it
+				mapResolver.sweep(x, y, toX, toY, containerSweep);
+				for (int visit = 0; visit < containerSweep.getCount(); visit++)
+					updateContainer(slot, containerSweep.getVisit(visit));
+
+				pixels += Math.abs(toX - x) + Math.abs(toY - y);
+				x = toX;
+				y = toY;
+			}
+
+			if (pixels == 0)
+				return 0;
+
+			store.setPosition(slot, x, y);
+			spatialIndex.move(slot);
+			renderer.moveBee(slot, x, y);
+			return pixels;
+		}
+	}
+
+	/**
+	 * Hand the whole trip to the flight engine; the listener is called from the
+	 * engine thread once the flight ends
+	 */
+	public FlightEngine.Flight startFlight(int slot, String beeId, int x, int y, FlightEngine.Listener listener)
+			throws MovimentOutOfBoundsException {
 		validateMoviment(x, y);
+		return flightEngine.start(slot, beeId, x, y, listener);
+	}
+
+	private void updateContainer(int slot, short containerIndex) {
+		BeeStore store = beeResolver.getStore();
+		short before = store.getContainer(slot);
+
+		if (before == containerIndex)
+			return;
+
+		if (before != BeeStore.NO_CONTAINER)
+			mapResolver.getContainer(before).removeBee();
+		if (containerIndex != BeeStore.NO_CONTAINER)
+			mapResolver.getContainer(containerIndex).addBee();
+
+		store.setContainer(slot, containerIndex);
+		store.setOutside(slot, containerIndex != store.getHome(slot));
 	}
 
 	private void validateMoviment(int x, int y) throws MovimentOutOfBoundsException {
@@ -178,139 +394,162 @@ public class Environment {
 		return height;
 	}
 
-	public void createLarva() {
-		Hive.getInstance().createLarva();
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateLarvaCount();
-			}
-		});
-	}
-
-	public void setHoneyStart(int ammount) {
-		Hive.getInstance().setHoney(ammount);
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateHoneyStatus(Hive.getInstance().getStatus());
-			}
-		});
-	}
-
-	public void setPollenStart(int ammount) {
-		Hive.getInstance().setPollen(ammount);
-	}
+	public void changeRole(String beeId, String role) {
+		System.out.println("Changing bee role, bee: " + beeId + ", to role:" + role);
+		int slot = beeResolver.getSlot(beeId);
+		BeeStore store = beeResolver.getStore();
 
-	public void registerBee(String beeId, String role) {
-		System.out.println("Registering bee " + beeId + " to role " + role);
-		Hive hive = Hive.getInstance();
-		Bee bee = hive.createBee(beeId, role);
-		EnvironmentApplication map = EnvironmentApplication.getInstance();
-		addBee(bee);
+		Colony colony;
 
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				Circle circle = beeResolver.getBee(beeId).getCircle();
-				EnvironmentApplication.instance.addBee(circle);
-				map.updateBeeCount();
-			}
-		});
-	}
+		synchronized (store) {
+			Bee bee = store.getBee(slot);
+			colony = getColonyOf(slot);
+			colony.getHive().changeRole(bee, role);
+			store.setRole(slot, bee.getRole());
+			renderer.changeBeeRole(slot, bee);
+		}
 
-	public void changeRole(String beeId, String role) {
-		System.out.println("Changing bee role, bee: " + beeId + ", to role:" + role);
-		Bee bee = beeResolver.getBee(beeId).getBee();
-		Hive.getInstance().changeRole(bee, role);
-
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				Circle circle = beeResolver.getBee(beeId).getCircle();
-				circle.setFill(bee.getColor());
-				EnvironmentApplication.getInstance().updateBeeCount();
-			}
-		});
+		renderer.updateBeeCount(colony);
 	}
 
 	public void unRegisterBee(String beeId) {
 		System.out.println("Unregistering bee " + beeId);
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		Bee bee = beeGraphic.getBee();
+		int slot = beeResolver.getSlot(beeId);
+		if (slot < 0)
+			return;
 
-		Hive.getInstance().removeBeeRole(bee.getRole(), bee);
-		beeResolver.removeBee(beeId);
+		Colony colony = removeBee(slot, beeId);
+		if (colony != null)
+			renderer.updateBeeCount(colony);
+	}
 
-		if (beeGraphic.isInsideContainer()) {
-			beeGraphic.getInsideContainer().removeBee(beeGraphic);
+	/**
+	 * Remove the bee from its colony's roster, its container, the spatial index
+	 * and the store. Returns the bee's colony, or null if the slot no longer
+	 * holds that bee (a concurrent kill or unregister got there first).
+	 */
+	Colony removeBee(int slot, String beeId) {
+		BeeStore store = beeResolver.getStore();
+
+		synchronized (store) {
+			if (!isSameBee(slot, beeId))
+				return null;
+
+			Bee bee = store.getBee(slot);
+			Colony colony = getColonyOf(slot);
+			colony.getHive().removeBeeRole(bee.getRole(), bee);
+			updateContainer(slot, BeeStore.NO_CONTAINER);
+			spatialIndex.remove(slot);
+			beeResolver.removeBee(slot);
+			renderer.removeBee(slot);
+			return colony;
 		}
+	}
 
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication map = EnvironmentApplication.getInstance();
-				map.removeBee(beeGraphic.getCircle());
-				map.updateBeeCount();
-			}
-		});
+	/**
+	 * Day boundary, run by the simulation loop: pollen regrowth and the new
+	 * external temperature
+	 */
+	private void advanceDay() {
+		int newDay = day + 1;
+		day = newDay;
+		changeDay(newDay);
+		incrementPollenFields();
+
+		int month = newDay % 12; // for seasons of the year
+		changeExtTemp((int) (Parameters.AVERAGE_TEMPERATURE
+				+ Parameters.TERMIC_AMPLITUDE * Math.sin(2 * Math.PI * (month / 12.))));
 	}
 
-	public void changeDay(int newDay) {
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateDay(newDay);
-			}
-		});
+	public int getDay() {
+		return day;
 	}
 
-	public void setIntTemp(int newTemp) {
-		Hive.getInstance().setTemperature(newTemp);
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateIntTemperature(newTemp);
-			}
-		});
+	public SimulationLoop getSimulationLoop() {
+		return simulationLoop;
+	}
+
+	public void changeDay(int newDay) {
+		renderer.updateDay(newDay);
 	}
 
 	public void changeExtTemp(int newTemp) {
 		this.extTemperature = newTemp;
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateExtTemp(newTemp);
-			}
-		});
+		renderer.updateExtTemperature(newTemp);
 	}
 
-	public void launchGraphicApplication(int width, int height, List<PollenField> pollenFields) {
+	/**
+	 * Build the map and start the simulation loop and the renderer (see
+	 * Renderer.create for how it is selected). Only the first colony's map
+	 * launches the world, the others join it.
+	 */
+	public synchronized void launchGraphicApplication(int width, int height, List<PollenField> pollenFields,
+			Renderer renderer) {
+		if (mapResolver != null)
+			return;
+
+		this.renderer = renderer;
 		this.width = width;
 		this.height = height;
-		this.mapResolver = new MapResolver(beeResolver, width, height);
+		this.mapResolver = new MapResolver(height);
+		this.spatialIndex = new SpatialIndex(beeResolver.getStore(), width, height, Parameters.SPATIAL_CELL_SIZE);
 		this.pollenFields = pollenFields;
+		this.pollenFieldIndex = new PollenFieldIndex(pollenFields);
+		createContainers(pollenFields);
+		for (Colony colony : colonies.values())
+			addColonyToMap(colony);
+		this.flightEngine = new FlightEngine(this);
+
+		simulationLoop.schedule(Parameters.FLIGHT_TICKS, tick -> flightEngine.tick());
+		simulationLoop.schedule(Parameters.DAY_TICKS, tick -> advanceDay());
+		simulationLoop.start();
 
-		new Thread(() -> {
-			Application.launch(EnvironmentApplication.class, width + "", height + "");
-		}).start();
+		renderer.launch(width, height);
+	}
+
+	public Renderer getRenderer() {
+		return renderer;
+	}
+
+	/**
+	 * Whether the map is up and the renderer can take the wasp
+	 */
+	public boolean isRendererReady() {
+		return mapResolver != null && renderer.isReady();
+	}
+
+	/**
+	 * Containers only carry plain bounds, so the simulation side is complete
+	 * before (and without) any Stage; the UI attaches its Rectangles later. The
+	 * hives are added per colony.
+	 */
+	private void createContainers(List<PollenField> pollenFields) {
+		List<PollenFieldGraphic> pollenFieldGraphics = new ArrayList<>();
+
+		for (PollenField pollenField : pollenFields) {
+			PollenFieldGraphic pollenFieldGraphic = new PollenFieldGraphic(pollenField);
+			pollenFieldResolver.createPollenField(pollenField.getId(), pollenFieldGraphic);
+			pollenFieldGraphics.add(pollenFieldGraphic);
+		}
+
+		mapResolver.setPollenFields(pollenFieldGraphics);
 	}
 
 	public void setPosition(String beeId, int x, int y) {
 		// System.out.println("Setting position bee: "+beeId+" x: "+x+" y: "+y);
-		Circle circle = mapResolver.setPositionBee(beeId, x, y);
-
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-				if (beeGraphic.isInsideContainer()) {
-					EnvironmentApplication.getInstance().removeBee(circle);
-				} else {
-					EnvironmentApplication.getInstance().addBee(circle);
-				}
-			}
-		});
+		int slot = beeResolver.getSlot(beeId);
+		BeeStore store = beeResolver.getStore();
+
+		synchronized (store) {
+			if (slot < 0 || !store.isAlive(slot))
+				return;
+
+			store.setPosition(slot, x, y);
+			spatialIndex.move(slot);
+			updateContainer(slot, mapResolver.getContainerIndex(x, y));
+			renderer.moveBee(slot, x, y);
+			renderer.setBeeVisible(slot, store.getContainer(slot) == BeeStore.NO_CONTAINER);
+		}
 	}
 
 	public BeeResolver getBeeResolver() {
@@ -321,18 +560,27 @@ public class Environment {
 		return mapResolver;
 	}
 
+	public SpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+
 	public PollenFieldResolver getPollenFieldResolver() {
 		return pollenFieldResolver;
 	}
 
 	public void collect(String pollenFieldId, String beeId)
 			throws PollenIsOverException, NoLongerPollenFieldException, CannotCollectOnThisPositionException {
+		collect(pollenFieldId, beeResolver.getSlot(beeId));
+	}
+
+	public void collect(String pollenFieldId, int slot)
+			throws PollenIsOverException, NoLongerPollenFieldException, CannotCollectOnThisPositionException {
 		// System.out.println("Beee "+beeId+" trying to collect on field
 		// "+pollenFieldId);
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
+		BeeStore store = beeResolver.getStore();
 
 		// Silently return if bee is dead or doesn't exist
-		if (beeGraphic == null || beeGraphic.getBee() == null) {
+		if (slot < 0 || !store.isAlive(slot)) {
 			return;
 		}
 
@@ -340,10 +588,11 @@ public class Environment {
 			throw new CannotCollectOnThisPositionException("Bee isn't inside pollen field!");
 
 		PollenFieldGraphic pollenFieldGraphic = pollenFieldResolver.getPollenField(pollenFieldId);
+		short container = store.getContainer(slot);
 
-		if (!beeGraphic.isInsideContainer())
+		if (container == BeeStore.NO_CONTAINER)
 			throw new CannotCollectOnThisPositionException("Bee isn't inside pollen field!");
-		else if (!beeGraphic.getInsideContainer().equals(pollenFieldGraphic))
+		else if (container != pollenFieldGraphic.getIndex())
 			throw new NoLongerPollenFieldException("Bee isn't on this pollen field!");
 
 		// System.out.println("Beee "+beeId+" is collecting on field "+pollenFieldId);
@@ -352,7 +601,7 @@ public class Environment {
 		PollenSupply statusBefore = pollenField.getStatus();
 
 		int ammount = pollenField.collect();
-		beeGraphic.getBee().setPollenCollected(ammount);
+		store.setPollen(slot, ammount);
 
 		updatePollenField(pollenField, statusBefore);
 	}
@@ -361,60 +610,12 @@ public class Environment {
 		PollenSupply statusAfter = pollenField.getStatus();
 
 		if (!statusBefore.equals(statusAfter)) {
-			EnvironmentApplication.getInstance().updatePollenFieldStatus(pollenField.getId());
-		}
-	}
-
-	public void delivery(String beeId)
-			throws CannotDepositOnThisPositionException, NoLongerHiveException, NoPollenCollectedException {
-		// System.out.println("Beee "+beeId+" delivering on hive");
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-
-		// Null check for dead bees
-		if (beeGraphic == null || beeGraphic.getBee() == null) {
-			return;
-		}
-
-		if (!beeGraphic.isInsideContainer())
-			throw new CannotDepositOnThisPositionException("Bee isn't inside field!");
-		else if (!beeGraphic.getInsideContainer().equals(mapResolver.getHive()))
-			throw new NoLongerHiveException("Bee isn't on Hive!");
-
-		int ammount = beeResolver.getBee(beeId).getBee().takePollenCollected();
-		if (ammount <= 0)
-			throw new NoPollenCollectedException("Not one pollen is collected!");
-
-		HoneySupply statusBefore = Hive.getInstance().getStatus();
-		Hive.getInstance().addPollen(ammount);
-		HoneySupply statusAfter = Hive.getInstance().getStatus();
-
-		updateHoney(statusBefore, statusAfter);
-	}
-
-	public void updateHoney(HoneySupply statusBefore, HoneySupply statusAfter) {
-		if (!statusBefore.equals(statusAfter)) {
-			JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-				@Override
-				public void run() {
-					EnvironmentApplication.getInstance().updateHoneyStatus(Hive.getInstance().getStatus());
-				}
-			});
+			renderer.updatePollenFieldStatus(pollenField.getId());
 		}
 	}
 
-	public void processPollen(int ammount) throws InsufficientPollenException {
-		HoneySupply statusBefore = Hive.getInstance().getStatus();
-
-		Hive.getInstance().subPollen(ammount);
-		Hive.getInstance().addHoney(ammount);
-
-		HoneySupply statusAfter = Hive.getInstance().getStatus();
-
-		updateHoney(statusBefore, statusAfter);
-	}
-
 	public Position getPosition(String beeId) {
-		return beeResolver.getBee(beeId).getBee().getPosition();
+		return getBeePos(beeId);
 	}
 
 	public String getMatchingPollenFieldId(Position beePos) {
@@ -423,27 +624,17 @@ public class Environment {
 			return null;
 		}
 
-		String pollenFieldId = null;
-
-		for (int i = 1; i <= pollenFieldResolver.getNumberPollenFields(); i++) {
-			String name = "pollenField" + i;
-			Rectangle rec = pollenFieldResolver.getPollenField(name).getRectangle();
+		return getMatchingPollenFieldId(beePos.getX(), beePos.getY());
+	}
 
-			if (beePos.getX() >= rec.getLayoutX() && beePos.getX() <= (rec.getLayoutX() + rec.getWidth()))
-				if (beePos.getY() >= rec.getLayoutY() && beePos.getY() <= (rec.getLayoutY() + rec.getHeight()))
-					pollenFieldId = name;
-		}
-		return pollenFieldId;
+	public String getMatchingPollenFieldId(int x, int y) {
+		return pollenFieldIndex.findId(x, y);
 	}
 
 	public int getExtTemperature() {
 		return extTemperature;
 	}
 
-	public void eat(int ammount) throws InsufficientHoneyException {
-		Hive.getInstance().subHoney(ammount);
-	}
-
 	public List<PollenField> getPollenFields() {
 		return pollenFields;
 	}
@@ -457,260 +648,4 @@ public class Environment {
 			updatePollenField(pollenField, statusBefore);
 		}
 	}
-
-	public Larva feedLarva() throws InsufficientHoneyException {
-		HoneySupply statusBefore = Hive.getInstance().getStatus();
-
-		Larva larva = Hive.getInstance().feedLarva();
-
-		HoneySupply statusAfter = Hive.getInstance().getStatus();
-		updateHoney(statusBefore, statusAfter);
-
-		return larva;
-	}
-
-	public void removeLarva(Larva larva) {
-		Hive.getInstance().removeLarva(larva);
-		EnvironmentApplication.getInstance().updateLarvaCount();
-	}
-
-	/* ========== WASP BATTLE SYSTEM ========== */
-
-	private Wasp wasp;
-	private boolean battleActive = false;
-
-	/**
-	 * Register the wasp predator in the environment
-	 */
-	public void registerWasp(Wasp wasp) {
-		this.wasp = wasp;
-		this.battleActive = true;
-		System.out.println("[Environment] Wasp registered at position (" +
-				wasp.getPosition().getX() + ", " + wasp.getPosition().getY() + ")");
-
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().addWasp(wasp);
-			}
-		});
-	}
-
-	/**
-	 * Get all bee positions for LLM strategy (OUTSIDE HIVE ONLY)
-	 * Uses BeeResolver for actual graphic positions (more accurate)
-	 */
-	public List<Position> getSentinelPositions() {
-		List<Position> positions = new ArrayList<>();
-
-		// Get all tracked bees from BeeResolver (most accurate)
-		for (String beeId : beeResolver.getAllBeeIds()) {
-			if (beeId.contains("queen"))
-				continue; // Skip queen
-
-			BeeGraphic bg = beeResolver.getBee(beeId);
-			if (bg == null || bg.getBee() == null)
-				continue;
-
-			Position pos = bg.getBee().getPosition();
-			if (pos == null || (pos.getX() == 0 && pos.getY() == 0))
-				continue;
-
-			// CRITICAL: Only add positions OUTSIDE the hive
-			if (!isInsideHive(pos.getX(), pos.getY())) {
-				positions.add(pos);
-			}
-		}
-
-		// If no sentinels outside hive, return empty list (this triggers Wasp victory)
-
-		return positions;
-	}
-
-	/**
-	 * Check if position is inside hive area (used for target filtering)
-	 */
-	private boolean isInsideHive(int x, int y) {
-		int HIVE_X = 649;
-		int HIVE_Y = 449;
-		int HIVE_WIDTH = 150;
-		int HIVE_HEIGHT = 150;
-
-		return x >= HIVE_X && x <= (HIVE_X + HIVE_WIDTH) &&
-				y >= HIVE_Y && y <= (HIVE_Y + HIVE_HEIGHT);
-	}
-
-	/**
-	 * Update wasp position on the map
-	 */
-	public void updateWaspPosition(Position newPosition) {
-		if (wasp != null) {
-			JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-				@Override
-				public void run() {
-					EnvironmentApplication.getInstance().updateWaspPosition(newPosition);
-				}
-			});
-
-			// Notify nearby sentinels about wasp position
-			notifySentinelsAboutWasp(newPosition);
-		}
-	}
-
-	/**
-	 * Update wasp health display
-	 */
-	public void updateWaspHealth(int health, int maxHealth) {
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().updateWaspHealth(health, maxHealth);
-			}
-		});
-	}
-
-	/**
-	 * Count bees within a radius of a position (uses BeeResolver for accuracy)
-	 */
-	public int countSentinelsInRadius(int centerX, int centerY, int radius) {
-		int count = 0;
-
-		// Use BeeResolver to get all bee graphics and their actual positions
-		for (String beeId : beeResolver.getAllBeeIds()) {
-			BeeGraphic bg = beeResolver.getBee(beeId);
-			if (bg != null && bg.getBee() != null) {
-				Position pos = bg.getBee().getPosition();
-				if (pos != null && pos.getX() != 0 && pos.getY() != 0) {
-					// IMPORTANT: Only count bees OUTSIDE the hive for counter-attacks
-					if (isInsideHive(pos.getX(), pos.getY())) {
-						continue; // Skip bees inside hive
-					}
-
-					double distance = Math.sqrt(
-							Math.pow(pos.getX() - centerX, 2) +
-									Math.pow(pos.getY() - centerY, 2));
-					if (distance <= radius) {
-						count++;
-					}
-				}
-			}
-		}
-
-		return count;
-	}
-
-	/**
-	 * Attack bees within radius and return list of killed IDs
-	 * Uses BeeResolver for accurate positions
-	 */
-	public List<String> attackSentinelsInRadius(int centerX, int centerY, int radius, int maxKills) {
-		List<String> killedIds = new ArrayList<>();
-		List<String> allBeeIds = new ArrayList<>(beeResolver.getAllBeeIds());
-
-		for (String beeId : allBeeIds) {
-			if (killedIds.size() >= maxKills)
-				break;
-
-			// Skip queen
-			if (beeId.contains("queen"))
-				continue;
-
-			BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-			if (beeGraphic == null || beeGraphic.getBee() == null)
-				continue;
-
-			Bee bee = beeGraphic.getBee();
-			Position pos = bee.getPosition();
-
-			if (pos == null || (pos.getX() == 0 && pos.getY() == 0))
-				continue;
-
-			double distance = Math.sqrt(
-					Math.pow(pos.getX() - centerX, 2) +
-							Math.pow(pos.getY() - centerY, 2));
-
-			if (distance <= radius) {
-				killedIds.add(beeId);
-
-				// Remove from hive based on role
-				BeeRole role = bee.getRole();
-				Hive.getInstance().removeBeeRole(role, bee);
-
-				// Remove from graphics
-				if (beeGraphic.isInsideContainer()) {
-					beeGraphic.getInsideContainer().removeBee(beeGraphic);
-				}
-				beeResolver.removeBee(beeId);
-
-				final BeeGraphic finalBg = beeGraphic;
-				JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-					@Override
-					public void run() {
-						EnvironmentApplication.getInstance().removeBee(finalBg.getCircle());
-						EnvironmentApplication.getInstance().updateBeeCount();
-					}
-				});
-			}
-		}
-
-		return killedIds;
-	}
-
-	/**
-	 * Notify sentinels about wasp presence (via Jason runtime if needed)
-	 */
-	private void notifySentinelsAboutWasp(Position waspPos) {
-		// This would be called to trigger belief updates in agents
-		// For now, the wasp artifact handles the battle loop directly
-	}
-
-	/**
-	 * Declare wasp as the winner
-	 */
-	public void declareWaspVictory() {
-		if (!battleActive)
-			return;
-		battleActive = false;
-
-		System.out.println("========================================");
-		System.out.println("   LLM-based Wasp Agent WINNER!   ");
-		System.out.println("   All sentinels have been eliminated!   ");
-		System.out.println("========================================");
-
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().showVictoryScreen(true);
-			}
-		});
-	}
-
-	/**
-	 * Declare sentinels as the winners
-	 */
-	public void declareSentinelVictory() {
-		if (!battleActive)
-			return;
-		battleActive = false;
-
-		System.out.println("========================================");
-		System.out.println("   JaCaMo-based Sentinels WINNER!   ");
-		System.out.println("   The wasp has been defeated!   ");
-		System.out.println("========================================");
-
-		JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
-			@Override
-			public void run() {
-				EnvironmentApplication.getInstance().showVictoryScreen(false);
-			}
-		});
-	}
-
-	public boolean isBattleActive() {
-		return battleActive;
-	}
-
-	public Wasp getWasp() {
-		return wasp;
-	}
-}
\ No newline at end of file
+}
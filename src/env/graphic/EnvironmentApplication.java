@@ -1,7 +1,8 @@
 package graphic;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import graphic.model.HiveGraphic;
 import graphic.model.PollenFieldGraphic;
@@ -23,6 +24,7 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import model.Hive;
 import model.PollenField;
+import model.enumeration.BeeRole;
 import model.enumeration.HoneySupply;
 
 public class EnvironmentApplication extends Application {
@@ -30,6 +32,7 @@ public class EnvironmentApplication extends Application {
 	private int width;
 	private int height;
 	private Group ground;
+	private Group hives;
 
 	private Text labelNumberTemp;
 	private Text labelNumberBeeQueen;
@@ -53,12 +56,10 @@ public class EnvironmentApplication extends Application {
 	private Font font = new Font(14);
 	private Text time;
 	private Text day;
-	private HiveGraphic hiveGraphic;
 
 	private Text extTemp;
+	private Text uiStats;
 	private BooleanProperty stop = new SimpleBooleanProperty(false);
-	private int second = 0;
-	private int minute = 0;
 	public static Color colorBeeFeeder;
 	public static Color colorBeeSentinel;
 	public static Color colorBeeWorker;
@@ -87,7 +88,7 @@ public class EnvironmentApplication extends Application {
 		Scene scene = new Scene(root, width + 230, height, Color.BLACK);
 		stage.setScene(scene);
 
-		root.getChildren().add(createHive());
+		root.getChildren().add(createHives());
 		root.getChildren().add(createPollenFields(Environment.getInstance().getPollenFields()));
 
 		Text labelTime = new Text(690, 16, "Time: ");
@@ -125,11 +126,20 @@ public class EnvironmentApplication extends Application {
 
 		root.getChildren().add(createLabels());
 
+		// how far the display lags the simulation, see JavaFXConcurrent
+		uiStats = new Text(831, 310, "");
+		uiStats.setFill(Color.LIGHTGRAY);
+		uiStats.setFont(new Font(11));
+		root.getChildren().add(uiStats);
+
+		// the bee canvas goes below, see addBeeLayer
 		ground = new Group();
 		root.getChildren().add(ground);
 
 		stage.show();
 
+		// updates queued so far and from now on are applied once per pulse
+		JavaFXConcurrent.getInstance().start();
 		startTimer();
 	}
 
@@ -208,7 +218,6 @@ public class EnvironmentApplication extends Application {
 	private Group createPollenFields(List<PollenField> pollenFields) {
 		Group group = new Group();
 		PollenFieldResolver pollenFieldResolver = Environment.getInstance().getPollenFieldResolver();
-		List<PollenFieldGraphic> pollenFieldGraphics = new ArrayList<>();
 
 		for (PollenField pollenField : pollenFields) {
 			Rectangle foodSource1 = createRectangle(pollenField.getWidth(), pollenField.getHeight(),
@@ -216,27 +225,38 @@ public class EnvironmentApplication extends Application {
 					pollenField.getPosition().getY());
 			group.getChildren().add(foodSource1);
 
-			PollenFieldGraphic pollenFieldGraphic = new PollenFieldGraphic(foodSource1, pollenField);
-			pollenFieldResolver.createPollenField(pollenField.getId(), pollenFieldGraphic);
-			pollenFieldGraphics.add(pollenFieldGraphic);
-
+			pollenFieldResolver.getPollenField(pollenField.getId()).setRectangle(foodSource1);
 		}
-		Environment.getInstance().getMapResolver().addContainers(hiveGraphic, pollenFieldGraphics);
 
 		return group;
 	}
 
-	private Group createHive() {
+	private Group createHives() {
 		Group group = new Group();
-		Rectangle hive = createRectangle(artifact.Parameters.HIVE_WIDTH, artifact.Parameters.HIVE_HEIGHT, colorYellow,
-				artifact.Parameters.HIVE_X, artifact.Parameters.HIVE_Y);
-		group.getChildren().add(hive);
-		hiveGraphic = new HiveGraphic(hive, "hive");
+		hives = new Group();
+		group.getChildren().add(hives);
+
+		for (Colony colony : Environment.getInstance().getColonies())
+			addHive(colony);
 
 		group.getChildren().add(createHiveInformation());
 		return group;
 	}
 
+	/**
+	 * Draw the hive of a colony, once
+	 */
+	public void addHive(Colony colony) {
+		HiveGraphic hiveGraphic = colony.getHiveGraphic();
+		if (hiveGraphic.getRectangle() != null)
+			return;
+
+		Rectangle hive = createRectangle(hiveGraphic.getWidth(), hiveGraphic.getHeight(), colorYellow,
+				hiveGraphic.getX(), hiveGraphic.getY());
+		hives.getChildren().add(hive);
+		hiveGraphic.setRectangle(hive);
+	}
+
 	private Group createHiveInformation() {
 		Group group = new Group();
 		// Rectangle rectangleInfo = createRectangle(70, 130, colorBlack, 726, 460);
@@ -376,15 +396,15 @@ public class EnvironmentApplication extends Application {
 		labelNumberTemp.setText(ammount + "℃");
 	}
 
-	public void updateLarvaCount() {
-		labelNumberBeeLarva.setText(Hive.getInstance().getLarvas().size() + "");
+	public void updateLarvaCount(Hive hive) {
+		labelNumberBeeLarva.setText(hive.getLarvas().size() + "");
 	}
 
-	public void updateBeeCount() {
-		labelNumberBeeQueen.setText(Hive.getInstance().getQueens().size() + "");
-		labelNumberBeeFeeder.setText(Hive.getInstance().getFeeders().size() + "");
-		labelNumberBeeSentinel.setText(Hive.getInstance().getSentinels().size() + "");
-		labelNumberBeeWorker.setText(Hive.getInstance().getWorkers().size() + "");
+	public void updateBeeCount(Hive hive) {
+		labelNumberBeeQueen.setText(hive.getBeeCount(BeeRole.monarch) + "");
+		labelNumberBeeFeeder.setText(hive.getBeeCount(BeeRole.nurse) + "");
+		labelNumberBeeSentinel.setText(hive.getBeeCount(BeeRole.sentinel) + "");
+		labelNumberBeeWorker.setText(hive.getBeeCount(BeeRole.explorer) + "");
 	}
 
 	public void updateHoneyStatus(HoneySupply newStatus) {
@@ -427,22 +447,24 @@ public class EnvironmentApplication extends Application {
 		Task<Void> t = new Task<Void>() {
 			@Override
 			protected Void call() throws Exception {
+				// simulated time, so it keeps up with the clock speed
+				SimulationClock clock = SimulationClock.getInstance();
+
 				while (!stop.get()) {
-					second++;
-					if (second == 60) {
-						minute++;
-						second = 0;
-					}
+					long seconds = clock.currentTimeMillis() / 1000;
+					long minute = seconds / 60;
+					long second = seconds % 60;
 					String min = minute <= 9 ? "0" + minute : minute + "";
 					String sec = second <= 9 ? "0" + second : second + "";
 
-					JavaFXConcurrent.getInstance().addUpdate(new Runnable() {
+					JavaFXConcurrent.getInstance().putUpdate("time", new Runnable() {
 						@Override
 						public void run() {
 							time.setText(min + ":" + sec);
 						}
 					});
-					Thread.sleep(1000);
+					JavaFXConcurrent.getInstance().putUpdate("uiStats", () -> updateUiStats());
+					Thread.sleep(200);
 				}
 				return null;
 			}
@@ -450,6 +472,14 @@ public class EnvironmentApplication extends Application {
 		new Thread(t).start();
 	}
 
+	private void updateUiStats() {
+		JavaFXConcurrent ui = JavaFXConcurrent.getInstance();
+		uiStats.setText(String.format("UI lag: %.0f ms%nPulse: %.1f ms (max %.1f)%nApplied/frame: %d%n"
+				+ "Pending: %d%nCoalesced: %d%nDropped frames: %d", ui.getLagMillis(), ui.getPulseMillis(),
+				ui.getMaxPulseMillis(), ui.getAppliedPerFrame(), ui.getPendingUpdates(), ui.getCoalesced(),
+				ui.getDroppedFrames()));
+	}
+
 	public void updateDay(int newDay) {
 		day.setText(newDay + "");
 	}
@@ -458,31 +488,35 @@ public class EnvironmentApplication extends Application {
 		extTemp.setText(newTemp + "℃");
 	}
 
-	public void removeBee(Node node) {
-		try {
-			ground.getChildren().remove(node);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-	}
-
-	public void addBee(Node node) {
-		ground.getChildren().add(node);
+	/**
+	 * Put the canvas all bees are drawn on below the wasps and the overlay
+	 */
+	public void addBeeLayer(Node beeLayer) {
+		Group root = (Group) ground.getParent();
+		root.getChildren().add(root.getChildren().indexOf(ground), beeLayer);
 	}
 
 	public void updatePollenFieldStatus(String pollenFieldId) {
 		PollenFieldGraphic pollenField = Environment.getInstance().getPollenFieldResolver()
 				.getPollenField(pollenFieldId);
-		pollenField.getRectangle().setFill(pollenField.getPollenField().getStatus().getColor());
+		if (pollenField.getRectangle() != null)
+			pollenField.getRectangle().setFill(pollenField.getPollenField().getStatus().getColor());
 	}
 
 	/* ========== WASP BATTLE VISUALIZATION ========== */
 
-	private Circle waspCircle;
-	private Text waspLLMText; // LLM text inside wasp circle
-	private Rectangle waspHealthBar;
-	private Rectangle waspHealthBarBg;
-	private Text waspLabel;
+	/**
+	 * Shapes of one colony's wasp
+	 */
+	private static class WaspView {
+		private Circle circle;
+		private Text llmText; // LLM text inside wasp circle
+		private Rectangle healthBar;
+		private Rectangle healthBarBg;
+		private Text label;
+	}
+
+	private final Map<String, WaspView> wasps = new HashMap<>();
 	private Group victoryOverlay;
 	private static final int WASP_SIZE = 14; // Slightly larger for LLM text
 	private static final Color WASP_COLOR = Color.WHITE; // White circle
@@ -491,93 +525,96 @@ public class EnvironmentApplication extends Application {
 	 * Add wasp visual representation to the scene
 	 * White circle with black bold "LLM" text inside
 	 */
-	public void addWasp(model.Wasp wasp) {
+	public void addWasp(String colonyId, model.Wasp wasp) {
+		WaspView view = new WaspView();
+
 		// Create wasp circle (WHITE with black border)
-		waspCircle = new Circle(WASP_SIZE, WASP_COLOR);
-		waspCircle.setLayoutX(wasp.getPosition().getX());
-		waspCircle.setLayoutY(wasp.getPosition().getY());
-		waspCircle.setStroke(Color.BLACK);
-		waspCircle.setStrokeWidth(2);
+		view.circle = new Circle(WASP_SIZE, WASP_COLOR);
+		view.circle.setLayoutX(wasp.getPosition().getX());
+		view.circle.setLayoutY(wasp.getPosition().getY());
+		view.circle.setStroke(Color.BLACK);
+		view.circle.setStrokeWidth(2);
 
 		// Create bold black "LLM" text inside the circle
-		waspLLMText = new Text("LLM");
-		waspLLMText.setFill(Color.BLACK);
-		waspLLMText.setFont(Font.font("Arial", javafx.scene.text.FontWeight.BOLD, 9));
-		waspLLMText.setLayoutX(wasp.getPosition().getX() - 10);
-		waspLLMText.setLayoutY(wasp.getPosition().getY() + 4);
+		view.llmText = new Text("LLM");
+		view.llmText.setFill(Color.BLACK);
+		view.llmText.setFont(Font.font("Arial", javafx.scene.text.FontWeight.BOLD, 9));
+		view.llmText.setLayoutX(wasp.getPosition().getX() - 10);
+		view.llmText.setLayoutY(wasp.getPosition().getY() + 4);
 
 		// Create health bar background
-		waspHealthBarBg = new Rectangle(30, 6, Color.DARKGRAY);
-		waspHealthBarBg.setLayoutX(wasp.getPosition().getX() - 15);
-		waspHealthBarBg.setLayoutY(wasp.getPosition().getY() - 25);
-		waspHealthBarBg.setStroke(Color.BLACK);
-		waspHealthBarBg.setStrokeWidth(1);
+		view.healthBarBg = new Rectangle(30, 6, Color.DARKGRAY);
+		view.healthBarBg.setLayoutX(wasp.getPosition().getX() - 15);
+		view.healthBarBg.setLayoutY(wasp.getPosition().getY() - 25);
+		view.healthBarBg.setStroke(Color.BLACK);
+		view.healthBarBg.setStrokeWidth(1);
 
 		// Create health bar (green)
-		waspHealthBar = new Rectangle(30, 6, colorGreen);
-		waspHealthBar.setLayoutX(wasp.getPosition().getX() - 15);
-		waspHealthBar.setLayoutY(wasp.getPosition().getY() - 25);
+		view.healthBar = new Rectangle(30, 6, colorGreen);
+		view.healthBar.setLayoutX(wasp.getPosition().getX() - 15);
+		view.healthBar.setLayoutY(wasp.getPosition().getY() - 25);
 
 		// Create label - Bold, centered, closer to health bar
-		waspLabel = new Text("WASP (LLM)");
-		waspLabel.setFill(Color.WHITE);
-		waspLabel.setFont(Font.font("Arial", javafx.scene.text.FontWeight.BOLD, 10));
+		view.label = new Text("WASP (LLM)");
+		view.label.setFill(Color.WHITE);
+		view.label.setFont(Font.font("Arial", javafx.scene.text.FontWeight.BOLD, 10));
 		// Center the label above the health bar
-		waspLabel.setLayoutX(wasp.getPosition().getX() - 25);
-		waspLabel.setLayoutY(wasp.getPosition().getY() - 28); // Closer to health bar
+		view.label.setLayoutX(wasp.getPosition().getX() - 25);
+		view.label.setLayoutY(wasp.getPosition().getY() - 28); // Closer to health bar
+
+		WaspView previous = wasps.put(colonyId, view);
+		if (previous != null)
+			ground.getChildren().removeAll(previous.healthBarBg, previous.healthBar, previous.circle,
+					previous.llmText, previous.label);
 
-		ground.getChildren().addAll(waspHealthBarBg, waspHealthBar, waspCircle, waspLLMText, waspLabel);
+		ground.getChildren().addAll(view.healthBarBg, view.healthBar, view.circle, view.llmText, view.label);
 
-		System.out.println("[UI] Wasp added to display at (" +
+		System.out.println("[UI] Wasp of " + colonyId + " added to display at (" +
 				wasp.getPosition().getX() + ", " + wasp.getPosition().getY() + ")");
 	}
 
 	/**
 	 * Update wasp position on screen
 	 */
-	public void updateWaspPosition(model.Position newPosition) {
-		if (waspCircle != null) {
-			waspCircle.setLayoutX(newPosition.getX());
-			waspCircle.setLayoutY(newPosition.getY());
-
-			if (waspHealthBarBg != null) {
-				waspHealthBarBg.setLayoutX(newPosition.getX() - 15);
-				waspHealthBarBg.setLayoutY(newPosition.getY() - 25);
-			}
+	public void updateWaspPosition(String colonyId, model.Position newPosition) {
+		WaspView view = wasps.get(colonyId);
 
-			if (waspHealthBar != null) {
-				waspHealthBar.setLayoutX(newPosition.getX() - 15);
-				waspHealthBar.setLayoutY(newPosition.getY() - 25);
-			}
+		if (view != null) {
+			view.circle.setLayoutX(newPosition.getX());
+			view.circle.setLayoutY(newPosition.getY());
 
-			if (waspLabel != null) {
-				waspLabel.setLayoutX(newPosition.getX() - 20);
-				waspLabel.setLayoutY(newPosition.getY() - 30);
-			}
+			view.healthBarBg.setLayoutX(newPosition.getX() - 15);
+			view.healthBarBg.setLayoutY(newPosition.getY() - 25);
+
+			view.healthBar.setLayoutX(newPosition.getX() - 15);
+			view.healthBar.setLayoutY(newPosition.getY() - 25);
+
+			view.label.setLayoutX(newPosition.getX() - 20);
+			view.label.setLayoutY(newPosition.getY() - 30);
 
 			// Update LLM text position (inside circle)
-			if (waspLLMText != null) {
-				waspLLMText.setLayoutX(newPosition.getX() - 10);
-				waspLLMText.setLayoutY(newPosition.getY() + 4);
-			}
+			view.llmText.setLayoutX(newPosition.getX() - 10);
+			view.llmText.setLayoutY(newPosition.getY() + 4);
 		}
 	}
 
 	/**
 	 * Update wasp health bar
 	 */
-	public void updateWaspHealth(int health, int maxHealth) {
-		if (waspHealthBar != null) {
+	public void updateWaspHealth(String colonyId, int health, int maxHealth) {
+		WaspView view = wasps.get(colonyId);
+
+		if (view != null) {
 			double healthPercent = (double) health / maxHealth;
-			waspHealthBar.setWidth(30 * healthPercent);
+			view.healthBar.setWidth(30 * healthPercent);
 
 			// Change color based on health
 			if (healthPercent > 0.6) {
-				waspHealthBar.setFill(colorGreen);
+				view.healthBar.setFill(colorGreen);
 			} else if (healthPercent > 0.3) {
-				waspHealthBar.setFill(colorYellowStrong);
+				view.healthBar.setFill(colorYellowStrong);
 			} else {
-				waspHealthBar.setFill(colorRed);
+				view.healthBar.setFill(colorRed);
 			}
 		}
 	}
@@ -585,9 +622,12 @@ public class EnvironmentApplication extends Application {
 	/**
 	 * Show victory/defeat screen
 	 * 
-	 * @param waspWon true if wasp won, false if sentinels won
+	 * @param colonyId colony whose battle ended
+	 * @param waspWon  true if wasp won, false if sentinels won
 	 */
-	public void showVictoryScreen(boolean waspWon) {
+	public void showVictoryScreen(String colonyId, boolean waspWon) {
+		if (victoryOverlay != null)
+			ground.getChildren().remove(victoryOverlay);
 		victoryOverlay = new Group();
 
 		// Semi-transparent background
@@ -615,6 +655,8 @@ public class EnvironmentApplication extends Application {
 		// Subtitle
 		String subtitle = waspWon ? "All sentinels have been eliminated!"
 				: "The wasp has been defeated by collective defense!";
+		if (Environment.getInstance().getColonies().size() > 1)
+			subtitle = colonyId + ": " + subtitle;
 		Text sub = new Text(subtitle);
 		sub.setFont(new Font("Arial", 18));
 		sub.setFill(Color.WHITE);
@@ -632,6 +674,6 @@ public class EnvironmentApplication extends Application {
 
 		ground.getChildren().add(victoryOverlay);
 
-		System.out.println("[UI] Victory screen displayed: " + (waspWon ? "Wasp wins" : "Sentinels win"));
+		System.out.println("[UI] Victory screen displayed for " + colonyId + ": " + (waspWon ? "Wasp wins" : "Sentinels win"));
 	}
 }
\ No newline at end of file
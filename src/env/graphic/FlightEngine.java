@@ -0,0 +1,141 @@
+package graphic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import artifact.Parameters;
+import model.exception.MovimentOutOfBoundsException;
+
+/**
+ * Moves bees toward their flight targets, so an agent hands over a whole trip at
+ * once instead of driving it pixel by pixel. The simulation loop calls tick,
+ * which moves each flight Parameters.FLIGHT_STEP_PIXELS in a straight line
+ * toward its target; a flight ends when the bee arrives, dies or is given a new flight. After the
+ * flights of a tick have moved, each listener with an ended flight is called once, from the loop
+ * thread, however many of its flights ended; a flight replaced by a new one is delivered on the
+ * next tick, never from the thread starting the new flight.
+ */
+public class FlightEngine {
+	private final Environment environment;
+	private final Map<Integer, Flight> flights = new ConcurrentHashMap<>();
+	// flights replaced by start, delivered by the next tick
+	private final Queue<Flight> replaced = new ConcurrentLinkedQueue<>();
+	// listeners to call at the end of the tick, only touched by the loop thread
+	private final List<Listener> endedListeners = new ArrayList<>();
+
+	public interface Listener {
+		/**
+		 * Some flights of the listener ended this tick; each tells so with
+		 * isEnded
+		 */
+		void flightsEnded();
+	}
+
+	public static class Flight {
+		private final int slot;
+		private final String beeId;
+		private final int targetX;
+		private final int targetY;
+		private final Listener listener;
+		private volatile boolean ended;
+		private volatile boolean arrived;
+
+		Flight(int slot, String beeId, int targetX, int targetY, Listener listener) {
+			this.slot = slot;
+			this.beeId = beeId;
+			this.targetX = targetX;
+			this.targetY = targetY;
+			this.listener = listener;
+		}
+
+		public String getBeeId() {
+			return beeId;
+		}
+
+		public boolean isEnded() {
+			return ended;
+		}
+
+		/**
+		 * True if the flight ended with the bee on its target
+		 */
+		public boolean hasArrived() {
+			return arrived;
+		}
+
+		private void end(boolean arrived) {
+			this.arrived = arrived;
+			this.ended = true;
+		}
+	}
+
+	public FlightEngine(Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Register a flight for the bee; a flight it already had ends without
+	 * arriving
+	 */
+	public Flight start(int slot, String beeId, int targetX, int targetY, Listener listener) {
+		Flight flight = new Flight(slot, beeId, targetX, targetY, listener);
+		Flight previous = flights.put(slot, flight);
+
+		if (previous != null) {
+			previous.end(false);
+			replaced.add(previous);
+		}
+
+		return flight;
+	}
+
+	public int getFlightCount() {
+		return flights.size();
+	}
+
+	/**
+	 * Advance every flight by one tick, then call the listeners of the ended
+	 * ones
+	 */
+	public void tick() {
+		for (Flight flight; (flight = replaced.poll()) != null;)
+			addEnded(flight);
+
+		for (Flight flight : flights.values()) {
+			boolean arrived = false;
+			boolean ended;
+
+			if (!environment.isSameBee(flight.slot, flight.beeId)) {
+				ended = true;
+			} else {
+				try {
+					boolean moved = environment.moveBeeBy(flight.slot, flight.targetX, flight.targetY,
+							Parameters.FLIGHT_STEP_PIXELS);
+					arrived = environment.getBeeX(flight.slot) == flight.targetX
+							&& environment.getBeeY(flight.slot) == flight.targetY;
+					ended = arrived || !moved;
+				} catch (MovimentOutOfBoundsException e) {
+					ended = true;
+				}
+			}
+
+			if (ended && flights.remove(flight.slot, flight)) {
+				flight.end(arrived);
+				addEnded(flight);
+			}
+		}
+
+		for (int i = 0; i < endedListeners.size(); i++)
+			endedListeners.get(i).flightsEnded();
+		endedListeners.clear();
+	}
+
+	private void addEnded(Flight flight) {
+		if (flight.listener != null && !endedListeners.contains(flight.listener))
+			endedListeners.add(flight.listener);
+	}
+}
@@ -0,0 +1,91 @@
+package graphic;
+
+import model.Bee;
+import model.Position;
+import model.Wasp;
+import model.enumeration.HoneySupply;
+
+/**
+ * Renderer that shows nothing: no toolkit, no scene graph, no UI thread. Used
+ * for batch runs and experiments where only the simulation matters.
+ */
+public class HeadlessRenderer implements Renderer {
+
+	@Override
+	public void launch(int width, int height) {
+		System.out.println("[Environment] Running headless, no graphics");
+	}
+
+	@Override
+	public boolean isReady() {
+		return true;
+	}
+
+	@Override
+	public void addColony(Colony colony) {
+	}
+
+	@Override
+	public void addBee(int slot, Bee bee, int x, int y) {
+	}
+
+	@Override
+	public void moveBee(int slot, int x, int y) {
+	}
+
+	@Override
+	public void setBeeVisible(int slot, boolean visible) {
+	}
+
+	@Override
+	public void changeBeeRole(int slot, Bee bee) {
+	}
+
+	@Override
+	public void removeBee(int slot) {
+	}
+
+	@Override
+	public void updateBeeCount(Colony colony) {
+	}
+
+	@Override
+	public void updateLarvaCount(Colony colony) {
+	}
+
+	@Override
+	public void updateHoneyStatus(Colony colony, HoneySupply status) {
+	}
+
+	@Override
+	public void updateDay(int day) {
+	}
+
+	@Override
+	public void updateIntTemperature(Colony colony, int temperature) {
+	}
+
+	@Override
+	public void updateExtTemperature(int temperature) {
+	}
+
+	@Override
+	public void updatePollenFieldStatus(String pollenFieldId) {
+	}
+
+	@Override
+	public void addWasp(Colony colony, Wasp wasp) {
+	}
+
+	@Override
+	public void updateWaspPosition(Colony colony, Position position) {
+	}
+
+	@Override
+	public void updateWaspHealth(Colony colony, int health, int maxHealth) {
+	}
+
+	@Override
+	public void showVictoryScreen(Colony colony, boolean waspWon) {
+	}
+}
@@ -1,70 +1,232 @@
 package graphic;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 
+/**
+ * Hands UI updates from the simulation threads to the JavaFX thread, applied
+ * once per pulse by an AnimationTimer. Updates added with addUpdate run in
+ * order. Updates added with putUpdate are keyed (one HUD counter, one wasp's
+ * position) and only the last one per key is applied, so the work per frame is
+ * bounded by what is on screen, not by how many events the simulation makes.
+ * Frame tasks (the bee canvas) run after the updates of every pulse.
+ * <p>
+ * Producers never block and the pending work is bounded by the number of keys,
+ * so the UI cannot slow the simulation down. The lag is the age of the oldest
+ * change a pulse shows; past the melissa.uiMaxLag threshold (milliseconds, 0 to
+ * never drop) a pulse drops its position frame: position updates stay pending,
+ * to be replaced by newer ones, and the frame tasks are skipped, at most
+ * MAX_DROPPED_FRAMES pulses in a row.
+ */
 public class JavaFXConcurrent {
+	public static final String MAX_LAG_PROPERTY = "melissa.uiMaxLag";
+	private static final int MAX_DROPPED_FRAMES = 3;
+
 	private static JavaFXConcurrent instance;
-	private Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+	private final Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final Map<Object, Runnable> latest = new ConcurrentHashMap<>();
+	private final Map<Object, Runnable> positions = new ConcurrentHashMap<>();
+	private final List<Runnable> frameTasks = new CopyOnWriteArrayList<>();
+	private final long maxLagNanos;
+	private AnimationTimer timer;
+	private int droppedInRow;
+
+	// nanoTime of the oldest change not shown yet, 0 when there is none
+	private final AtomicLong pendingSince = new AtomicLong();
+
+	// gauges of the last pulse, written on the JavaFX thread
+	private volatile long lagNanos;
+	private volatile long pulseNanos;
+	private volatile long maxPulseNanos;
+	private volatile int appliedPerFrame;
+	// counters since start
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder droppedFrames = new LongAdder();
 
 	private JavaFXConcurrent() {
-		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
-		Runnable task = new Runnable() {
-			public void run() {
-				if (!getUpdates().isEmpty()) {
-					Queue<Runnable> copy = new LinkedBlockingQueue<>();
-					
-					while (!getUpdates().isEmpty())
-						copy.add(getUpdates().poll());
-					
-					getUpdates().clear();
-					
-					if (!copy.isEmpty()) {
-						Platform.runLater(new Runnable() {
-							@Override
-							public void run() {
-								while (!copy.isEmpty())
-									copy.poll().run();;
-							}
-						});				
-					}
-				}
+		maxLagNanos = Long.parseLong(System.getProperty(MAX_LAG_PROPERTY, "100")) * 1_000_000;
+	}
+
+	/**
+	 * Start applying the updates, once per pulse. Must be called on the JavaFX
+	 * thread; updates added before are kept until then.
+	 */
+	public void start() {
+		if (timer != null)
+			return;
+
+		timer = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				applyUpdates();
 			}
 		};
-
-		scheduler.scheduleAtFixedRate(task, 0, 20, TimeUnit.MILLISECONDS);
+		timer.start();
 	}
-	
-//	public void addUpdate(Runnable runnable) {
-//		updates.add(runnable);
-//	}
-	
+
+	/**
+	 * Queue an update that must not be skipped (a node added or removed, a
+	 * victory screen); these run in order before the keyed ones
+	 */
 	public void addUpdate(Runnable runnable) {
-		Platform.runLater(() -> {
-			try {
-				runnable.run();
-			} catch (Exception e) {
-				System.err.println("[JavaFXConcurrent] Error during UI update:");
-				e.printStackTrace();
-			}
-		});	
-	}	
+		updates.add(runnable);
+		queued.incrementAndGet();
+		notePending();
+	}
+
+	/**
+	 * Set the update for the key, replacing the one still pending, if any
+	 */
+	public void putUpdate(Object key, Runnable runnable) {
+		if (latest.put(key, runnable) != null)
+			coalesced.increment();
+		notePending();
+	}
 
-	public Queue<Runnable> getUpdates() {
-		return updates;
+	/**
+	 * Like putUpdate, for a position: a lagging pulse leaves it pending
+	 */
+	public void putPositionUpdate(Object key, Runnable runnable) {
+		if (positions.put(key, runnable) != null)
+			coalesced.increment();
+		notePending();
 	}
-	
-	public static JavaFXConcurrent getInstance() {
+
+	/**
+	 * Run the task on every pulse, after the updates. Frame tasks draw
+	 * positions, so a lagging pulse skips them.
+	 */
+	public void addFrameTask(Runnable task) {
+		frameTasks.add(task);
+	}
+
+	/**
+	 * Drop the pending update for the key, e.g. one made stale by a removal
+	 */
+	public void cancelUpdate(Object key) {
+		latest.remove(key);
+		positions.remove(key);
+	}
+
+	/**
+	 * Something changed that the next pulse shows (frame tasks call it for
+	 * what they draw); starts the lag clock if it is not running
+	 */
+	public void notePending() {
+		if (pendingSince.get() == 0)
+			pendingSince.compareAndSet(0, System.nanoTime());
+	}
+
+	// on the JavaFX thread, once per pulse
+	private void applyUpdates() {
+		long start = System.nanoTime();
+		long since = pendingSince.getAndSet(0);
+		lagNanos = since == 0 ? 0 : start - since;
+
+		boolean dropFrame = maxLagNanos > 0 && lagNanos > maxLagNanos && droppedInRow < MAX_DROPPED_FRAMES;
+		int applied = 0;
+
+		Runnable runnable;
+		while ((runnable = updates.poll()) != null) {
+			queued.decrementAndGet();
+			applied += run(runnable);
+		}
+
+		applied += applyAll(latest);
+
+		if (dropFrame) {
+			droppedInRow++;
+			droppedFrames.increment();
+			// the positions left behind keep their age for the next pulse
+			pendingSince.accumulateAndGet(since, (current, left) -> current == 0 ? left : Math.min(current, left));
+		} else {
+			droppedInRow = 0;
+			applied += applyAll(positions);
+
+			for (Runnable task : frameTasks)
+				run(task);
+		}
+
+		appliedPerFrame = applied;
+		pulseNanos = System.nanoTime() - start;
+		maxPulseNanos = Math.max(maxPulseNanos, pulseNanos);
+	}
+
+	private int applyAll(Map<Object, Runnable> keyed) {
+		int applied = 0;
+
+		for (Object key : keyed.keySet()) {
+			Runnable runnable = keyed.remove(key);
+			if (runnable != null)
+				applied += run(runnable);
+		}
+		return applied;
+	}
+
+	private int run(Runnable runnable) {
+		try {
+			runnable.run();
+		} catch (Exception e) {
+			System.err.println("[JavaFXConcurrent] Error during UI update:");
+			e.printStackTrace();
+		}
+		return 1;
+	}
+
+	/**
+	 * Updates not applied yet: queued, keyed and positions
+	 */
+	public int getPendingUpdates() {
+		return queued.get() + latest.size() + positions.size();
+	}
+
+	/**
+	 * Age of the oldest change shown by the last pulse
+	 */
+	public double getLagMillis() {
+		return lagNanos / 1e6;
+	}
+
+	public double getPulseMillis() {
+		return pulseNanos / 1e6;
+	}
+
+	public double getMaxPulseMillis() {
+		return maxPulseNanos / 1e6;
+	}
+
+	public int getAppliedPerFrame() {
+		return appliedPerFrame;
+	}
+
+	/**
+	 * Keyed updates replaced by a newer one before being applied
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * Pulses that dropped their position frame because of the lag
+	 */
+	public long getDroppedFrames() {
+		return droppedFrames.sum();
+	}
+
+	public static synchronized JavaFXConcurrent getInstance() {
 		if (instance == null)
 			instance = new JavaFXConcurrent();
-		
+
 		return instance;
 	}
 }
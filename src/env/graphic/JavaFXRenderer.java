@@ -0,0 +1,149 @@
+package graphic;
+
+import javafx.application.Application;
+import model.Bee;
+import model.Position;
+import model.Wasp;
+import model.enumeration.HoneySupply;
+
+/**
+ * Renderer backed by EnvironmentApplication. Bees go straight to the packed
+ * buffer of a BeeLayer, drawn on one canvas per frame. Every other call is
+ * queued to the JavaFX thread; HUD values are keyed updates, so only the
+ * latest one per counter reaches each frame. The map shows every colony; the
+ * hive panel follows the first one.
+ */
+public class JavaFXRenderer implements Renderer {
+	private final BeeLayer bees = new BeeLayer();
+
+	@Override
+	public void launch(int width, int height) {
+		new Thread(() -> {
+			Application.launch(EnvironmentApplication.class, width + "", height + "");
+		}).start();
+
+		// the first update applied, once the window and the role colors exist
+		update(() -> application().addBeeLayer(bees.createCanvas(width, height)));
+	}
+
+	@Override
+	public boolean isReady() {
+		return EnvironmentApplication.getInstance() != null;
+	}
+
+	@Override
+	public void addColony(Colony colony) {
+		// before the window exists its start draws every colony known by then
+		if (isReady())
+			update(() -> application().addHive(colony));
+	}
+
+	@Override
+	public void addBee(int slot, Bee bee, int x, int y) {
+		bees.add(slot, bee.getRole(), x, y);
+	}
+
+	@Override
+	public void moveBee(int slot, int x, int y) {
+		bees.move(slot, x, y);
+	}
+
+	@Override
+	public void setBeeVisible(int slot, boolean visible) {
+		bees.setVisible(slot, visible);
+	}
+
+	@Override
+	public void changeBeeRole(int slot, Bee bee) {
+		bees.setRole(slot, bee.getRole());
+	}
+
+	@Override
+	public void removeBee(int slot) {
+		bees.remove(slot);
+	}
+
+	@Override
+	public void updateBeeCount(Colony colony) {
+		if (isPanelColony(colony))
+			update("beeCount", () -> application().updateBeeCount(colony.getHive()));
+	}
+
+	@Override
+	public void updateLarvaCount(Colony colony) {
+		if (isPanelColony(colony))
+			update("larvaCount", () -> application().updateLarvaCount(colony.getHive()));
+	}
+
+	@Override
+	public void updateHoneyStatus(Colony colony, HoneySupply status) {
+		if (isPanelColony(colony))
+			update("honeyStatus", () -> application().updateHoneyStatus(status));
+	}
+
+	@Override
+	public void updateDay(int day) {
+		update("day", () -> application().updateDay(day));
+	}
+
+	@Override
+	public void updateIntTemperature(Colony colony, int temperature) {
+		if (isPanelColony(colony))
+			update("intTemperature", () -> application().updateIntTemperature(temperature));
+	}
+
+	@Override
+	public void updateExtTemperature(int temperature) {
+		update("extTemperature", () -> application().updateExtTemp(temperature));
+	}
+
+	@Override
+	public void updatePollenFieldStatus(String pollenFieldId) {
+		update("pollenField:" + pollenFieldId, () -> application().updatePollenFieldStatus(pollenFieldId));
+	}
+
+	@Override
+	public void addWasp(Colony colony, Wasp wasp) {
+		update(() -> application().addWasp(colony.getId(), wasp));
+	}
+
+	@Override
+	public void updateWaspPosition(Colony colony, Position position) {
+		updatePosition("waspPosition:" + colony.getId(),
+				() -> application().updateWaspPosition(colony.getId(), position));
+	}
+
+	@Override
+	public void updateWaspHealth(Colony colony, int health, int maxHealth) {
+		update("waspHealth:" + colony.getId(),
+				() -> application().updateWaspHealth(colony.getId(), health, maxHealth));
+	}
+
+	@Override
+	public void showVictoryScreen(Colony colony, boolean waspWon) {
+		update(() -> application().showVictoryScreen(colony.getId(), waspWon));
+	}
+
+	// the hive panel has room for one colony
+	private boolean isPanelColony(Colony colony) {
+		return colony == colony.getEnvironment().getColonies().get(0);
+	}
+
+	private EnvironmentApplication application() {
+		return EnvironmentApplication.getInstance();
+	}
+
+	private void update(Runnable runnable) {
+		JavaFXConcurrent.getInstance().addUpdate(runnable);
+	}
+
+	// replaces the update still pending for the same key
+	private void update(Object key, Runnable runnable) {
+		JavaFXConcurrent.getInstance().putUpdate(key, runnable);
+	}
+
+	// same, but a lagging frame may leave it for a newer one
+	private void updatePosition(Object key, Runnable runnable) {
+		JavaFXConcurrent.getInstance().putPositionUpdate(key, runnable);
+	}
+}
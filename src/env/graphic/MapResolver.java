@@ -1,132 +1,157 @@
 package graphic;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import graphic.model.BeeContainer;
-import graphic.model.BeeGraphic;
 import graphic.model.HiveGraphic;
 import graphic.model.PollenFieldGraphic;
-import javafx.scene.shape.Circle;
-import model.Bee;
-import model.Position;
-import model.enumeration.Direction;
+import model.RegionIndex;
 
 public class MapResolver {
-	private BeeResolver beeResolver;
-	
-	private HiveGraphic hive;
-	private Map<String, PollenFieldGraphic> pollenFields = new HashMap<>();
-	
-	private String[][] existsContainer;
-	
-	public MapResolver(BeeResolver beeResolver, int width, int height) {
-		this.beeResolver = beeResolver;
-		this.existsContainer = new String[width][height];
-	}
+	private int height;
+	private List<BeeContainer> hives = new ArrayList<>();
+	private List<BeeContainer> pollenFields = new ArrayList<>();
+
+	// containers by index and the region index of their bounds, rebuilt and swapped
+	// whenever a container is added; the array only grows, so an index read from
+	// an older lookup still resolves to the same container
+	private volatile BeeContainer[] containers = new BeeContainer[1];
+	private volatile RegionIndex containerIndex = new RegionIndex.Builder().build(0);
 
-	public void addContainers(HiveGraphic hive, List<PollenFieldGraphic> pollenFieldGraphics) {
-		this.hive = hive;
-		
-		for (PollenFieldGraphic pollenField : pollenFieldGraphics)
-			pollenFields.put(pollenField.getId(), pollenField);
+	public MapResolver(int height) {
+		this.height = height;
 	}
-	
-	public void moveBee(Bee bee, Direction direction) {
-		int x = bee.getPosition().getX();
-		int y = bee.getPosition().getY();
-		
-		int newX = x;
-		int newY = y;
-		
-		if (direction.equals(Direction.LEFT)) {
-			newX = x-1;
-		} else if (direction.equals(Direction.RIGHT)) {
-			newX = x+1;
-		} else if (direction.equals(Direction.UP)) {
-			newY = y-1;
-		} else if (direction.equals(Direction.DOWN)) {
-			newY = y+1;
+
+	/**
+	 * Pollen fields take the indices right after BeeStore.NO_CONTAINER, so they
+	 * are set before any hive
+	 */
+	public synchronized void setPollenFields(List<PollenFieldGraphic> pollenFieldGraphics) {
+		if (!hives.isEmpty() || !pollenFields.isEmpty())
+			throw new IllegalStateException("Pollen fields must be set once, before the hives");
+
+		checkCapacity(pollenFieldGraphics.size());
+		short index = 1;
+		for (PollenFieldGraphic pollenField : pollenFieldGraphics) {
+			pollenField.setIndex(index++);
+			pollenFields.add(pollenField);
 		}
-		
-		bee.setPosition(newX, newY);
+		rebuild();
 	}
-	
-	public Circle setPositionBee(String beeId, int newX, int newY) {
-		BeeGraphic beeGraphic = beeResolver.getBee(beeId);
-		
-		if (beeGraphic.isInsideContainer()) {
-			beeGraphic.getInsideContainer().removeBee(beeGraphic);
-			beeGraphic.setInsideContainer(null);
-		}
-		
-		Circle circle = beeGraphic.getCircle();
-		circle.setLayoutX(newX);
-		circle.setLayoutY(newY);
-		
-		beeGraphic.getBee().setPosition(newX, newY);
-		
-		if (hasContainer(beeGraphic.getBee().getPosition()))  {
-			BeeContainer beeContainer = getContainer(beeGraphic.getBee().getPosition());
-			beeContainer.addBee(beeGraphic);
-			beeGraphic.setInsideContainer(beeContainer);
-		}			 
-
-		return circle;
+
+	/**
+	 * Add the hive of a new colony; hives win any overlap with a pollen field
+	 */
+	public synchronized void addHive(HiveGraphic hive) {
+		checkCapacity(pollenFields.size() + hives.size() + 1);
+		hive.setIndex((short) (1 + pollenFields.size() + hives.size()));
+		hives.add(hive);
+		rebuild();
 	}
 
-	public boolean hasContainer(Position position) {
-		String existsAnything = existsContainer[position.getX()][position.getY()];
-		
-		if (existsAnything != null) return !existsAnything.equals("0");		
-		
-		boolean isContainer = hasOnPosition(position, hive);
-		
-		if (isContainer)
-			existsContainer[position.getX()][position.getY()] = "hive";
-		
-		if (!isContainer) {
-			for (BeeContainer beeContainer : pollenFields.values()) {
-				if (hasOnPosition(position, beeContainer)) {
-					existsContainer[position.getX()][position.getY()] = beeContainer.getId();
-					isContainer = true;
-					break;
-				}
-			}
-		}
-		
-		return isContainer;
-	}	
-	
-	private boolean hasOnPosition(Position position, BeeContainer beeContainer) {
-		int xContainer = (int) beeContainer.getRectangle().getLayoutX();
-		int yContainer = (int) beeContainer.getRectangle().getLayoutY();
-		int widthContainer = (int) beeContainer.getRectangle().getWidth();
-		int heightContainer = (int) beeContainer.getRectangle().getHeight();
-		
-		if (position.getX() >= xContainer && position.getX() < (xContainer+widthContainer)) {
-			if (position.getY() >= yContainer && position.getY() < (yContainer+heightContainer)) {
-				return true; 
-			}
-		}
-		
-		return false;
+	// container ids are shorts in the bee store
+	private static void checkCapacity(int containerCount) {
+		if (containerCount > Short.MAX_VALUE)
+			throw new IllegalStateException("At most " + Short.MAX_VALUE + " pollen fields and hives, not "
+					+ containerCount);
 	}
 
-	public HiveGraphic getHive() {
-		return hive;
+	private void rebuild() {
+		BeeContainer[] indexed = new BeeContainer[1 + pollenFields.size() + hives.size()];
+		RegionIndex.Builder builder = new RegionIndex.Builder();
+
+		for (BeeContainer hive : hives)
+			addContainer(hive, indexed, builder);
+		for (BeeContainer pollenField : pollenFields)
+			addContainer(pollenField, indexed, builder);
+
+		this.containers = indexed;
+		this.containerIndex = builder.build(height);
+	}
+
+	private void addContainer(BeeContainer beeContainer, BeeContainer[] indexed, RegionIndex.Builder builder) {
+		indexed[beeContainer.getIndex()] = beeContainer;
+		builder.add(beeContainer.getIndex(), beeContainer.getX(), beeContainer.getY(), beeContainer.getWidth(),
+				beeContainer.getHeight());
 	}
 
-	public BeeContainer getContainer(Position position) {
-		if (hasContainer(position)) {
-			String container = existsContainer[position.getX()][position.getY()];
-			
-			if (container.equals("hive"))
-				return hive;
-			else
-				return pollenFields.get(container);
+	public boolean hasContainer(int x, int y) {
+		return containerIndex.find(x, y) != RegionIndex.NONE;
+	}
+
+	public BeeContainer getContainer(int x, int y) {
+		// the index first: rebuild swaps the containers in before it
+		int index = containerIndex.find(x, y);
+		return containers[index];
+	}
+
+	/**
+	 * Index of the container covering the pixel, BeeStore.NO_CONTAINER if none
+	 */
+	public short getContainerIndex(int x, int y) {
+		return (short) containerIndex.find(x, y);
+	}
+
+	public BeeContainer getContainer(short index) {
+		return containers[index];
+	}
+
+	/**
+	 * Sweep the straight move from (fromX, fromY) to (toX, toY) against the
+	 * container bounds, so a multi-pixel step that crosses a small field still
+	 * enters and leaves it. Pixels are treated as unit squares around their
+	 * coordinates, which covers the rounding of the positions along the move.
+	 * Only the containers the region index finds in the bounding box of the
+	 * move are clipped, so the cost does not grow with the size of the map.
+	 */
+	public void sweep(int fromX, int fromY, int toX, int toY, ContainerSweep sweep) {
+		sweep.clear();
+		// the index first: rebuild swaps the containers in before it
+		RegionIndex containerIndex = this.containerIndex;
+		BeeContainer[] containers = this.containers;
+		short start = (short) containerIndex.find(fromX, fromY);
+		double dx = toX - fromX, dy = toY - fromY;
+
+		containerIndex.forEachIn(Math.min(fromX, toX) - 1, Math.min(fromY, toY) - 1, Math.max(fromX, toX) + 1,
+				Math.max(fromY, toY) + 1, sweep);
+
+		for (int candidate = 0; candidate < sweep.getCandidateCount(); candidate++) {
+			int index = sweep.getCandidate(candidate);
+			BeeContainer container = containers[index];
+			if (index == start)
+				continue;
+
+			// Liang-Barsky clipping of the segment against the container box
+			double minX = container.getX() - 0.5, maxX = container.getX() + container.getWidth() - 0.5;
+			double minY = container.getY() - 0.5, maxY = container.getY() + container.getHeight() - 0.5;
+			double[] window = sweep.window;
+			window[0] = 0;
+			window[1] = 1;
+
+			if (clip(-dx, fromX - minX, window) && clip(dx, maxX - fromX, window)
+					&& clip(-dy, fromY - minY, window) && clip(dy, maxY - fromY, window))
+				sweep.add((short) index, window[0]);
+		}
+
+		sweep.add((short) containerIndex.find(toX, toY), 2);
+	}
+
+	// narrow the [enter, exit] window of the segment by one box edge; false once it is empty
+	private static boolean clip(double p, double q, double[] window) {
+		if (p == 0)
+			return q >= 0;
+
+		double r = q / p;
+		if (p < 0) {
+			if (r > window[1])
+				return false;
+			window[0] = Math.max(window[0], r);
+		} else {
+			if (r < window[0])
+				return false;
+			window[1] = Math.min(window[1], r);
 		}
-		return null;
+		return true;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package graphic;
+
+import model.Bee;
+import model.Position;
+import model.Wasp;
+import model.enumeration.HoneySupply;
+
+/**
+ * Receiver of everything the environment shows. The environment calls these
+ * from the simulation and operation threads; an implementation moves the work
+ * to its own thread if it needs one. Per-bee events are issued under the bee
+ * store lock, so they arrive in order even when a slot is recycled. Hive and
+ * wasp events name the colony they belong to.
+ */
+public interface Renderer {
+	String PROPERTY = "melissa.renderer";
+	String JAVAFX = "javafx";
+	String HEADLESS = "headless";
+
+	/**
+	 * Renderer named by the melissa.renderer system property, or by the given
+	 * name if the property is not set; JavaFX if neither is
+	 */
+	static Renderer create(String name) {
+		String selected = System.getProperty(PROPERTY, name == null ? JAVAFX : name);
+
+		if (JAVAFX.equalsIgnoreCase(selected))
+			return new JavaFXRenderer();
+		else if (HEADLESS.equalsIgnoreCase(selected))
+			return new HeadlessRenderer();
+
+		throw new IllegalArgumentException("Unknown renderer: " + selected);
+	}
+
+	void launch(int width, int height);
+
+	/**
+	 * Whether the renderer can show the wasp and the battle yet
+	 */
+	boolean isReady();
+
+	/**
+	 * A colony joined the world after launch; its hive goes on the map
+	 */
+	void addColony(Colony colony);
+
+	void addBee(int slot, Bee bee, int x, int y);
+
+	void moveBee(int slot, int x, int y);
+
+	/**
+	 * Bees inside a container are hidden, the container stands for them
+	 */
+	void setBeeVisible(int slot, boolean visible);
+
+	void changeBeeRole(int slot, Bee bee);
+
+	void removeBee(int slot);
+
+	void updateBeeCount(Colony colony);
+
+	void updateLarvaCount(Colony colony);
+
+	void updateHoneyStatus(Colony colony, HoneySupply status);
+
+	void updateDay(int day);
+
+	void updateIntTemperature(Colony colony, int temperature);
+
+	void updateExtTemperature(int temperature);
+
+	void updatePollenFieldStatus(String pollenFieldId);
+
+	void addWasp(Colony colony, Wasp wasp);
+
+	void updateWaspPosition(Colony colony, Position position);
+
+	void updateWaspHealth(Colony colony, int health, int maxHealth);
+
+	void showVictoryScreen(Colony colony, boolean waspWon);
+}
@@ -0,0 +1,96 @@
+package graphic;
+
+import artifact.Parameters;
+
+/**
+ * Simulation time, counted in fixed ticks of Parameters.TICK_MS simulated
+ * milliseconds. The speed factor maps simulated time to wall time: at 2 a tick
+ * takes half its length. The simulation loop, the artifact delays and the
+ * agent waits (sim.wait) all go through the clock, so the whole colony speeds
+ * up together.
+ *
+ * The speed comes from the melissa.speed system property, a factor such as
+ * "10", up to MAX_SPEED. There is no unbounded fast-forward: agents wait in
+ * wall time and reason at their own pace, so past MAX_SPEED the shortest agent
+ * waits would take less than the millisecond Jason can wait, and the days
+ * would pass faster than the agents can act on them.
+ */
+public class SimulationClock {
+	public static final String PROPERTY = "melissa.speed";
+	// the shortest agent wait (sim.wait(100)) still lasts a wall millisecond
+	public static final double MAX_SPEED = 100;
+
+	private static SimulationClock instance = null;
+
+	private final long tickMillis;
+	private volatile long tick;
+	private volatile double speed = 1;
+
+	public SimulationClock(long tickMillis) {
+		this.tickMillis = tickMillis;
+	}
+
+	public static synchronized SimulationClock getInstance() {
+		if (instance == null) {
+			instance = new SimulationClock(Parameters.TICK_MS);
+			instance.setSpeed(System.getProperty(PROPERTY, "1"));
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Speed factor ("2", "0.5")
+	 */
+	public void setSpeed(String speed) {
+		try {
+			setSpeed(Double.parseDouble(speed.trim()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid simulation speed: " + speed);
+		}
+	}
+
+	public void setSpeed(double speed) {
+		if (!(speed > 0 && speed <= MAX_SPEED))
+			throw new IllegalArgumentException(
+					"Simulation speed must be positive and at most " + MAX_SPEED + ": " + speed);
+
+		this.speed = speed;
+	}
+
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Count one more tick; only the simulation loop calls this
+	 */
+	long advance() {
+		return ++tick;
+	}
+
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Simulated milliseconds since the loop started
+	 */
+	public long currentTimeMillis() {
+		return tick * tickMillis;
+	}
+
+	/**
+	 * Wall time one tick should take
+	 */
+	public long getTickNanos() {
+		return (long) (tickMillis * 1_000_000L / speed);
+	}
+
+	/**
+	 * Wall milliseconds matching the simulated delay
+	 */
+	public long toWallMillis(long simulatedMillis) {
+		return Math.round(simulatedMillis / speed);
+	}
+}
@@ -0,0 +1,198 @@
+package graphic;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single fixed-timestep scheduler driving the simulation. Systems (flights,
+ * combat, day change, temperature) are scheduled with a period in ticks and all
+ * run on the loop thread; after them the publishers run once per tick to push
+ * the changes out (artifact observable properties). The clock sets how much
+ * wall time a tick takes. When the loop falls behind it catches up without sleeping, up to MAX_CATCH_UP_TICKS,
+ * and then drops the backlog instead of spiralling.
+ *
+ * Tasks scheduled on a lane (one per colony) run after the shared tasks, with
+ * the lanes in parallel on a worker pool and each lane's tasks in order; the
+ * tick waits for every lane before the publishers run.
+ */
+public class SimulationLoop {
+	private static final int MAX_CATCH_UP_TICKS = 10;
+
+	private final SimulationClock clock;
+	private final List<Task> tasks = new CopyOnWriteArrayList<>();
+	private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+	private final List<Lane> laneList = new CopyOnWriteArrayList<>();
+	private volatile ForkJoinPool workers;
+	private final List<Runnable> publishers = new CopyOnWriteArrayList<>();
+	private volatile long lastTickDurationNanos;
+	private volatile long overruns;
+	private Thread thread;
+
+	public interface Tickable {
+		void tick(long tick);
+	}
+
+	private static class Task {
+		private final int period;
+		private final Tickable tickable;
+
+		Task(int period, Tickable tickable) {
+			this.period = period;
+			this.tickable = tickable;
+		}
+	}
+
+	private class Lane implements Callable<Void> {
+		private final List<Task> tasks = new CopyOnWriteArrayList<>();
+		private volatile long tick;
+
+		@Override
+		public Void call() {
+			runDue(tasks, tick);
+			return null;
+		}
+	}
+
+	public SimulationLoop(SimulationClock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Run the tickable every periodTicks ticks, after the tasks scheduled before
+	 * it
+	 */
+	public void schedule(int periodTicks, Tickable tickable) {
+		tasks.add(new Task(Math.max(1, periodTicks), tickable));
+	}
+
+	/**
+	 * Run the tickable every periodTicks ticks on the named lane, in parallel with
+	 * the other lanes
+	 */
+	public void schedule(String lane, int periodTicks, Tickable tickable) {
+		lanes.computeIfAbsent(lane, name -> {
+			Lane created = new Lane();
+			laneList.add(created);
+			return created;
+		}).tasks.add(new Task(Math.max(1, periodTicks), tickable));
+	}
+
+	public void unschedule(Tickable tickable) {
+		tasks.removeIf(task -> task.tickable == tickable);
+		for (Lane lane : laneList)
+			lane.tasks.removeIf(task -> task.tickable == tickable);
+	}
+
+	/**
+	 * Run the publisher at the end of every tick
+	 */
+	public void addPublisher(Runnable publisher) {
+		publishers.add(publisher);
+	}
+
+	public synchronized void start() {
+		if (thread != null)
+			return;
+
+		thread = new Thread(this::run, "simulation-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void run() {
+		long next = System.nanoTime();
+
+		while (!Thread.currentThread().isInterrupted()) {
+			runTick();
+
+			// read every tick, the speed can change while running
+			long tickNanos = clock.getTickNanos();
+			next += tickNanos;
+			long delay = next - System.nanoTime();
+
+			if (delay > 0) {
+				LockSupport.parkNanos(delay);
+			} else {
+				overruns++;
+				if (-delay > tickNanos * MAX_CATCH_UP_TICKS)
+					next = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Advance the simulation by one tick: every due task, then every publisher
+	 */
+	public void runTick() {
+		long start = System.nanoTime();
+		long current = clock.advance();
+
+		runDue(tasks, current);
+		runLanes(current);
+
+		for (Runnable publisher : publishers)
+			runSafely(publisher);
+
+		lastTickDurationNanos = System.nanoTime() - start;
+	}
+
+	private void runDue(List<Task> due, long current) {
+		for (Task task : due) {
+			if (current % task.period == 0)
+				runSafely(() -> task.tickable.tick(current));
+		}
+	}
+
+	private void runLanes(long current) {
+		if (laneList.size() == 1) {
+			runDue(laneList.get(0).tasks, current);
+			return;
+		}
+
+		if (laneList.isEmpty())
+			return;
+
+		for (Lane lane : laneList)
+			lane.tick = current;
+		getWorkers().invokeAll(laneList);
+	}
+
+	private ForkJoinPool getWorkers() {
+		if (workers == null)
+			workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		return workers;
+	}
+
+	// one failing system must not stop the whole simulation
+	private void runSafely(Runnable runnable) {
+		try {
+			runnable.run();
+		} catch (RuntimeException e) {
+			System.err.println("[SimulationLoop] Error on tick " + clock.getTick() + ":");
+			e.printStackTrace();
+		}
+	}
+
+	public long getTick() {
+		return clock.getTick();
+	}
+
+	public SimulationClock getClock() {
+		return clock;
+	}
+
+	public long getLastTickDurationNanos() {
+		return lastTickDurationNanos;
+	}
+
+	/**
+	 * Ticks that finished after their deadline
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+}
@@ -0,0 +1,156 @@
+package graphic;
+
+/**
+ * Uniform grid of bee positions. Every bee slot lives in the bucket that covers
+ * its current pixel, so radius and rectangle queries only visit the buckets
+ * that overlap the query area instead of every registered bee.
+ */
+public class SpatialIndex {
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	private final BeeStore store;
+	private final int cellSize;
+	private final int columns;
+	private final int rows;
+	private final int[][] cells;
+	private final int[] cellCounts;
+
+	public interface Visitor {
+		void visit(int slot, int x, int y, int distanceSquared);
+	}
+
+	public SpatialIndex(BeeStore store, int width, int height, int cellSize) {
+		this.store = store;
+		this.cellSize = cellSize;
+		this.columns = (width + cellSize - 1) / cellSize;
+		this.rows = (height + cellSize - 1) / cellSize;
+		this.cells = new int[columns * rows][];
+		this.cellCounts = new int[columns * rows];
+	}
+
+	public synchronized void insert(int slot) {
+		if (store.getCell(slot) >= 0)
+			detach(slot);
+
+		attach(slot, cellOf(store.getX(slot), store.getY(slot)));
+	}
+
+	/**
+	 * Re-bucket a bee after its position changed in the store
+	 */
+	public synchronized void move(int slot) {
+		int cell = cellOf(store.getX(slot), store.getY(slot));
+
+		if (cell == store.getCell(slot))
+			return;
+
+		if (store.getCell(slot) >= 0)
+			detach(slot);
+
+		attach(slot, cell);
+	}
+
+	public synchronized void remove(int slot) {
+		if (store.getCell(slot) >= 0)
+			detach(slot);
+	}
+
+	/**
+	 * Visit every bee whose position is within radius (inclusive) of the center
+	 */
+	public synchronized void forEachInRadius(int centerX, int centerY, int radius, Visitor visitor) {
+		int minColumn = column(centerX - radius), maxColumn = column(centerX + radius);
+		int minRow = row(centerY - radius), maxRow = row(centerY + radius);
+		int radiusSquared = radius * radius;
+
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minColumn; c <= maxColumn; c++) {
+				int cell = r * columns + c;
+				int[] slots = cells[cell];
+
+				for (int i = 0; i < cellCounts[cell]; i++) {
+					int slot = slots[i];
+					int x = store.getX(slot);
+					int y = store.getY(slot);
+					int dx = x - centerX, dy = y - centerY;
+					int distanceSquared = dx * dx + dy * dy;
+
+					if (distanceSquared <= radiusSquared)
+						visitor.visit(slot, x, y, distanceSquared);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visit every bee inside the rectangle [minX, maxX] x [minY, maxY]
+	 */
+	public synchronized void forEachInRect(int minX, int minY, int maxX, int maxY, Visitor visitor) {
+		int minColumn = column(minX), maxColumn = column(maxX);
+		int minRow = row(minY), maxRow = row(maxY);
+
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minColumn; c <= maxColumn; c++) {
+				int cell = r * columns + c;
+				int[] slots = cells[cell];
+
+				for (int i = 0; i < cellCounts[cell]; i++) {
+					int slot = slots[i];
+					int x = store.getX(slot);
+					int y = store.getY(slot);
+
+					if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+						visitor.visit(slot, x, y, 0);
+				}
+			}
+		}
+	}
+
+	private void attach(int slot, int cell) {
+		int[] slots = cells[cell];
+		int count = cellCounts[cell];
+
+		if (slots == null) {
+			slots = new int[INITIAL_CELL_CAPACITY];
+			cells[cell] = slots;
+		} else if (count == slots.length) {
+			int[] grown = new int[count * 2];
+			System.arraycopy(slots, 0, grown, 0, count);
+			slots = grown;
+			cells[cell] = slots;
+		}
+
+		slots[count] = slot;
+		cellCounts[cell] = count + 1;
+		store.setCell(slot, cell, count);
+	}
+
+	// swap-remove keeps every bucket dense, so removal is O(1)
+	private void detach(int slot) {
+		int cell = store.getCell(slot);
+		int index = store.getCellSlot(slot);
+		int[] slots = cells[cell];
+		int last = cellCounts[cell] - 1;
+
+		if (index != last) {
+			int moved = slots[last];
+			slots[index] = moved;
+			store.setCell(moved, cell, index);
+		}
+
+		cellCounts[cell] = last;
+		store.setCell(slot, -1, -1);
+	}
+
+	private int cellOf(int x, int y) {
+		return row(y) * columns + column(x);
+	}
+
+	private int column(int x) {
+		return Math.max(0, Math.min(columns - 1, x / cellSize));
+	}
+
+	private int row(int y) {
+		return Math.max(0, Math.min(rows - 1, y / cellSize));
+	}
+}
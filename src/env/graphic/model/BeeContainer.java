@@ -1,34 +1,80 @@
 package graphic.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javafx.scene.shape.Rectangle;
 
 public abstract class BeeContainer {
+	private final String id;
+	private final int x;
+	private final int y;
+	private final int width;
+	private final int height;
 	private Rectangle rectangle;
-	private String id;
-	private List<BeeGraphic> bees = new ArrayList<>();
+	private short index;
+	private AtomicInteger beeCount = new AtomicInteger();
 	
-	public BeeContainer(Rectangle rectangle, String id) {
+	public BeeContainer(String id, int x, int y, int width, int height) {
 		super();
-		this.rectangle = rectangle;
 		this.id = id;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
 	}
 	
-	public void addBee(BeeGraphic bee) {
-		bees.add(bee);
+	public void addBee() {
+		beeCount.incrementAndGet();
 	}
 	
-	public void removeBee(BeeGraphic bee) {
-		bees.remove(bee);
+	public void removeBee() {
+		beeCount.decrementAndGet();
 	}	
 	
+	public int getBeeCount() {
+		return beeCount.get();
+	}
+	
 	public String getId() {
 		return id;
 	}
 	
+	/**
+	 * Container id stored per bee in the bee store, assigned by the MapResolver
+	 */
+	public short getIndex() {
+		return index;
+	}
+	
+	public void setIndex(short index) {
+		this.index = index;
+	}
+	
+	public int getX() {
+		return x;
+	}
+	
+	public int getY() {
+		return y;
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Scene node drawing this container; null until the UI has created it, and
+	 * only ever used for rendering
+	 */
 	public Rectangle getRectangle() {
 		return rectangle;
 	}
+	
+	public void setRectangle(Rectangle rectangle) {
+		this.rectangle = rectangle;
+	}
 }
@@ -1,10 +1,10 @@
 package graphic.model;
 
-import javafx.scene.shape.Rectangle;
+import artifact.Parameters;
 
 public class HiveGraphic extends BeeContainer {
 	
-	public HiveGraphic(Rectangle rectangle, String id) {
-		super(rectangle, id);
+	public HiveGraphic(String id, int x, int y) {
+		super(id, x, y, Parameters.HIVE_WIDTH, Parameters.HIVE_HEIGHT);
 	}
 }
\ No newline at end of file
@@ -1,13 +1,13 @@
 package graphic.model;
 
-import javafx.scene.shape.Rectangle;
 import model.PollenField;
 
 public class PollenFieldGraphic extends BeeContainer {
 	private PollenField pollenField;
 	
-	public PollenFieldGraphic(Rectangle rectangle, PollenField pollenField) {
-		super(rectangle, pollenField.getId());
+	public PollenFieldGraphic(PollenField pollenField) {
+		super(pollenField.getId(), pollenField.getPosition().getX(), pollenField.getPosition().getY(),
+				pollenField.getWidth(), pollenField.getHeight());
 		this.pollenField = pollenField;
 	}
 
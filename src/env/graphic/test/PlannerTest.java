@@ -0,0 +1,80 @@
+package graphic.test;
+
+import java.util.SplittableRandom;
+
+import artifact.GeminiService;
+import model.Position;
+import model.PositionBuffer;
+import model.RandomService;
+
+/**
+ * Random boards, scattered and packed in clusters, planned by the Wasp's
+ * heuristic and by the plain O(n^2) ranking it replaces; both must pick the
+ * same sentinel. Set melissa.seed to replay a board.
+ */
+public class PlannerTest {
+	private static final int BOARDS = 2000;
+
+	public static void main(String[] args) {
+		GeminiService service = new GeminiService();
+		SplittableRandom random = RandomService.forKey("plannerTest");
+		PositionBuffer sentinels = new PositionBuffer();
+		int mismatches = 0;
+
+		for (int board = 0; board < BOARDS; board++) {
+			int count = RandomService.nextInt(random, 1, board % 10 == 0 ? 2000 : 60);
+			int clusters = RandomService.nextInt(random, 0, 3);
+			sentinels.clear();
+
+			for (int i = 0; i < count; i++) {
+				if (clusters > 0 && i % (clusters + 1) != 0) {
+					// packed around a few centres, a dense cell among sparse ones
+					int centre = i % clusters * 250 + 100;
+					sentinels.add(centre + RandomService.nextInt(random, 0, 40),
+							centre / 2 + RandomService.nextInt(random, 0, 40));
+				} else {
+					sentinels.add(RandomService.nextInt(random, 0, 799), RandomService.nextInt(random, 0, 599));
+				}
+			}
+			Position wasp = new Position(RandomService.nextInt(random, 0, 799), RandomService.nextInt(random, 0, 599));
+
+			GeminiService.AttackDecision decision = service.getSpeculativeDecision(sentinels, wasp);
+			int expected = bruteForce(sentinels, wasp);
+
+			if (decision.targetX != sentinels.getX(expected) || decision.targetY != sentinels.getY(expected)) {
+				mismatches++;
+				System.out.println("Board " + board + ": planned (" + decision.targetX + "," + decision.targetY
+						+ "), expected (" + sentinels.getX(expected) + "," + sentinels.getY(expected) + ")");
+			}
+		}
+
+		System.out.println(mismatches == 0 ? "OK, " + BOARDS + " boards" : mismatches + " of " + BOARDS + " boards differ");
+		if (mismatches > 0)
+			System.exit(1);
+	}
+
+	// fewest sentinels within 100px, counted up to 4, then closest to the wasp; first wins a tie
+	private static int bruteForce(PositionBuffer sentinels, Position wasp) {
+		int best = -1, bestNear = Integer.MAX_VALUE;
+		long bestDistance = Long.MAX_VALUE;
+
+		for (int i = 0; i < sentinels.size(); i++) {
+			int near = 0;
+			for (int j = 0; j < sentinels.size(); j++) {
+				long dx = sentinels.getX(j) - sentinels.getX(i), dy = sentinels.getY(j) - sentinels.getY(i);
+				if (dx * dx + dy * dy <= 100 * 100)
+					near++;
+			}
+			near = Math.min(near, 4);
+
+			long dx = sentinels.getX(i) - wasp.getX(), dy = sentinels.getY(i) - wasp.getY();
+			long distance = dx * dx + dy * dy;
+			if (near < bestNear || near == bestNear && distance < bestDistance) {
+				best = i;
+				bestNear = near;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+}
@@ -1,10 +1,12 @@
 package graphic.test;
 
 import artifact.Parameters;
+import graphic.Colony;
 import graphic.Environment;
 import graphic.JavaFXConcurrent;
+import graphic.Renderer;
 import model.Position;
-import model.RandomUtils;
+import model.RandomService;
 import model.enumeration.Direction;
 import model.exception.CannotCollectOnThisPositionException;
 import model.exception.CannotDepositOnThisPositionException;
@@ -18,7 +20,8 @@ import model.exception.PollenIsOverException;
 public class Test {
 	public static void main(String[] args) {
 		Environment instance = Environment.getInstance();
-		instance.launchGraphicApplication(800, 600, Parameters.makePollenFields());
+		instance.launchGraphicApplication(800, 600, Parameters.makePollenFields(), Renderer.create(Renderer.JAVAFX));
+		Colony colony = instance.getColony(Parameters.DEFAULT_COLONY);
 
 		try {
 			Thread.sleep(2000);
@@ -38,8 +41,8 @@ public class Test {
 			Thread t1 = new Thread(new Runnable() {
 				public void run() {
 					String beeId = "bee" + id;
-					instance.registerBee(beeId, "explorer");
-					instance.setPosition(beeId, 761 + RandomUtils.getRandom(0, 30), 449);
+					colony.registerBee(beeId, "explorer");
+					instance.setPosition(beeId, 761 + RandomService.nextInt(RandomService.current(), 0, 30), 449);
 
 					for (int z = 0; z < 3; z++) {
 						for (int y = 0; y < 180; y++) {
@@ -104,7 +107,7 @@ public class Test {
 						}
 
 						try {
-							instance.delivery(beeId);
+							colony.delivery(beeId);
 						} catch (CannotDepositOnThisPositionException | NoLongerHiveException
 								| NoPollenCollectedException e) {
 							e.printStackTrace();
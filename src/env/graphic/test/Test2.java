@@ -1,12 +1,15 @@
 package graphic.test;
 
 import artifact.Parameters;
+import graphic.Colony;
 import graphic.Environment;
+import graphic.Renderer;
 
 public class Test2 {
 	public static void main(String[] args) {
 		Environment instance = Environment.getInstance();
-		instance.launchGraphicApplication(800, 600, Parameters.makePollenFields());
+		instance.launchGraphicApplication(800, 600, Parameters.makePollenFields(), Renderer.create(Renderer.JAVAFX));
+		Colony colony = instance.getColony(Parameters.DEFAULT_COLONY);
 
 		try {
 			Thread.sleep(2000);
@@ -15,7 +18,7 @@ public class Test2 {
 		}
 
 		String beeId = "bee" + 1;
-		instance.registerBee(beeId, "explorer");
+		colony.registerBee(beeId, "explorer");
 		instance.setPosition(beeId, 500, 400);
 
 	}
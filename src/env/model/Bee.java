@@ -8,18 +8,14 @@ public class Bee {
 	private String id;
 	private BeeRole role;
 	private int age;
-	private Position position = new Position();
-	private int pollenCollected;
+	private int slot = -1;
+	private int rosterIndex = -1;
 
 	public Bee(String id, BeeRole role) {
 		this.id = id;
 		this.role = role;
 	}
 
-	public void setPosition(int x, int y) {
-		this.position.setXY(x, y);
-	}
-
 	public String getId() {
 		return id;
 	}
@@ -28,18 +24,26 @@ public class Bee {
 		return age;
 	}
 
-	public Position getPosition() {
-		return position;
+	/**
+	 * Slot of this bee in the environment's bee store, -1 if not registered
+	 */
+	public int getSlot() {
+		return slot;
+	}
+
+	public void setSlot(int slot) {
+		this.slot = slot;
 	}
 
-	public void setPollenCollected(int ammount) {
-		this.pollenCollected = ammount;
+	/**
+	 * Index of this bee in its role's array of the hive roster, -1 if not listed
+	 */
+	int getRosterIndex() {
+		return rosterIndex;
 	}
 
-	public int takePollenCollected() {
-		int ammount = pollenCollected;
-		pollenCollected = 0;
-		return ammount;
+	void setRosterIndex(int rosterIndex) {
+		this.rosterIndex = rosterIndex;
 	}
 
 	public BeeRole getRole() {
@@ -51,6 +55,10 @@ public class Bee {
 	}
 
 	public Paint getColor() {
+		return getColor(role);
+	}
+
+	public static Paint getColor(BeeRole role) {
 		switch (role) {
 			case nurse:
 				return EnvironmentApplication.colorBeeFeeder;
@@ -0,0 +1,77 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+
+import model.enumeration.BeeRole;
+
+/**
+ * Bees of the hive grouped by role. Each role keeps a dense array and every bee
+ * remembers its index in it, so add, remove and role change are O(1)
+ * (swap-remove). The per-role counters can be read from any thread without
+ * taking the roster lock.
+ */
+public class BeeRoster {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Bee[][] members = new Bee[BeeRole.values().length][];
+	private final AtomicIntegerArray counts = new AtomicIntegerArray(BeeRole.values().length);
+
+	public BeeRoster() {
+		for (int role = 0; role < members.length; role++)
+			members[role] = new Bee[INITIAL_CAPACITY];
+	}
+
+	public synchronized void add(Bee bee) {
+		int role = bee.getRole().ordinal();
+		int count = counts.get(role);
+
+		if (count == members[role].length)
+			members[role] = Arrays.copyOf(members[role], count * 2);
+
+		members[role][count] = bee;
+		bee.setRosterIndex(count);
+		counts.set(role, count + 1);
+	}
+
+	/**
+	 * Remove the bee from the role it is listed under; no-op if it is not
+	 * listed there
+	 */
+	public synchronized void remove(BeeRole beeRole, Bee bee) {
+		int role = beeRole.ordinal();
+		int index = bee.getRosterIndex();
+
+		if (index < 0 || index >= counts.get(role) || members[role][index] != bee)
+			return;
+
+		int last = counts.get(role) - 1;
+		Bee moved = members[role][last];
+		members[role][index] = moved;
+		moved.setRosterIndex(index);
+		members[role][last] = null;
+		bee.setRosterIndex(-1);
+		counts.set(role, last);
+	}
+
+	public synchronized void changeRole(Bee bee, BeeRole newRole) {
+		remove(bee.getRole(), bee);
+		bee.setRole(newRole);
+		add(bee);
+	}
+
+	public int getCount(BeeRole role) {
+		return counts.get(role.ordinal());
+	}
+
+	/**
+	 * Visit every bee of the role, under the roster lock
+	 */
+	public synchronized void forEach(BeeRole beeRole, Consumer<Bee> action) {
+		int role = beeRole.ordinal();
+
+		for (int i = 0; i < counts.get(role); i++)
+			action.accept(members[role][i]);
+	}
+}
@@ -13,15 +13,11 @@ import model.exception.InsufficientHoneyException;
 import model.exception.InsufficientPollenException;
 
 public class Hive {
-	private static Hive instance;
 	private static int maxHoney = Parameters.MAX_HIVE_HONEY;
 
 	private int temperature;
 
-	private List<Bee> queens = new ArrayList<>();
-	private List<Bee> feeders = new ArrayList<>();
-	private List<Bee> sentinels = new ArrayList<>();
-	private List<Bee> workers = new ArrayList<>();
+	private BeeRoster roster = new BeeRoster();
 	private List<Larva> larvas = new ArrayList<>();
 	private Queue<Larva> feedOrder = new LinkedList<>();
 
@@ -30,7 +26,7 @@ public class Hive {
 
 	private Rectangle hive;
 
-	private Hive() {
+	public Hive() {
 	}
 
 	public HoneySupply getStatus() {
@@ -46,13 +42,6 @@ public class Hive {
 			return HoneySupply.FULL;
 	}
 
-	public static Hive getInstance() {
-		if (instance == null)
-			instance = new Hive();
-
-		return instance;
-	}
-
 	public Rectangle getHiveRect() {
 		return hive;
 	}
@@ -73,10 +62,6 @@ public class Hive {
 		this.temperature = temperature;
 	}
 
-	public List<Bee> getFeeders() {
-		return feeders;
-	}
-
 	public List<Larva> getLarvas() {
 		return larvas;
 	}
@@ -97,16 +82,15 @@ public class Hive {
 		this.pollen = pollen;
 	}
 
-	public List<Bee> getQueens() {
-		return queens;
-	}
-
-	public List<Bee> getSentinels() {
-		return sentinels;
+	public BeeRoster getRoster() {
+		return roster;
 	}
 
-	public List<Bee> getWorkers() {
-		return workers;
+	/**
+	 * Live number of bees with the role, safe to read from any thread
+	 */
+	public int getBeeCount(BeeRole role) {
+		return roster.getCount(role);
 	}
 
 	public void createLarva() {
@@ -140,53 +124,18 @@ public class Hive {
 	public Bee createBee(String beeId, String role) {
 		BeeRole beeRole = BeeRole.valueOf(role);
 		Bee bee = new Bee(beeId, beeRole);
-		;
 
-		addBeeRole(beeRole, bee);
+		roster.add(bee);
 
 		return bee;
 	}
 
-	private void addBeeRole(BeeRole role, Bee bee) {
-		switch (role) {
-			case sentinel:
-				sentinels.add(bee);
-				break;
-			case nurse:
-				feeders.add(bee);
-				break;
-			case monarch:
-				queens.add(bee);
-				break;
-			default:
-				workers.add(bee);
-				break;
-		}
-	}
-
 	public void removeBeeRole(BeeRole role, Bee bee) {
-		switch (role) {
-			case sentinel:
-				sentinels.remove(bee);
-				break;
-			case nurse:
-				feeders.remove(bee);
-				break;
-			case monarch:
-				queens.remove(bee);
-				break;
-			default:
-				workers.remove(bee);
-				break;
-		}
+		roster.remove(role, bee);
 	}
 
 	public void changeRole(Bee bee, String role) {
-		removeBeeRole(bee.getRole(), bee);
-
-		BeeRole newRole = BeeRole.valueOf(role);
-		addBeeRole(newRole, bee);
-		bee.setRole(newRole);
+		roster.changeRole(bee, BeeRole.valueOf(role));
 	}
 
 	public Larva feedLarva() throws InsufficientHoneyException {
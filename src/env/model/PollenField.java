@@ -7,7 +7,8 @@ import model.exception.PollenIsOverException;
 public class PollenField {
 	private String id;
 	private int maxAmmount;
-	private int ammount;
+	// colonies collect from the same fields concurrently
+	private volatile int ammount;
 	private Position position;
 	private int width;
 	private int height;
@@ -56,7 +57,7 @@ public class PollenField {
 		return id;
 	}
 
-	public int collect() throws PollenIsOverException {
+	public synchronized int collect() throws PollenIsOverException {
 		if (getAmmount() >= Parameters.AMMOUNT_BEE_COLLECT_POLLEN) {
 			setAmmount(getAmmount() - Parameters.AMMOUNT_BEE_COLLECT_POLLEN);
 			return Parameters.AMMOUNT_BEE_COLLECT_POLLEN;
@@ -68,7 +69,7 @@ public class PollenField {
 		this.ammount = ammount;
 	}
 
-	public void addPollenAmmount(int dailyPollenAmmountIncrease) {
+	public synchronized void addPollenAmmount(int dailyPollenAmmountIncrease) {
 		int newAmmount = getAmmount() + dailyPollenAmmountIncrease;
 		
 		if (newAmmount <= maxAmmount)
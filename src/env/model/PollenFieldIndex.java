@@ -0,0 +1,49 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Immutable point-in-field lookup over the pollen field bounds, built once from
+ * the model (Parameters.makePollenFields()) and independent of the scene graph.
+ * Field edges are inclusive on every side, and where fields overlap the one
+ * listed last wins.
+ */
+public class PollenFieldIndex {
+	private final PollenField[] pollenFields;
+	private final RegionIndex regionIndex;
+
+	public PollenFieldIndex(List<PollenField> pollenFields) {
+		this.pollenFields = new PollenField[pollenFields.size() + 1];
+
+		RegionIndex.Builder builder = new RegionIndex.Builder();
+		int rows = 0;
+
+		// RegionIndex keeps the first region added, so walk the list backwards
+		for (int i = pollenFields.size() - 1; i >= 0; i--) {
+			PollenField pollenField = pollenFields.get(i);
+			Position position = pollenField.getPosition();
+
+			this.pollenFields[i + 1] = pollenField;
+			builder.add(i + 1, position.getX(), position.getY(), pollenField.getWidth() + 1,
+					pollenField.getHeight() + 1);
+			rows = Math.max(rows, position.getY() + pollenField.getHeight() + 1);
+		}
+
+		this.regionIndex = builder.build(rows);
+	}
+
+	/**
+	 * Pollen field covering the point, null if none
+	 */
+	public PollenField find(int x, int y) {
+		return pollenFields[regionIndex.find(x, y)];
+	}
+
+	/**
+	 * Id of the pollen field covering the point, null if none
+	 */
+	public String findId(int x, int y) {
+		PollenField pollenField = find(x, y);
+		return pollenField == null ? null : pollenField.getId();
+	}
+}
@@ -0,0 +1,60 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of positions packed as x,y pairs in one int array. Meant to be
+ * owned by a caller and refilled on every query, so steady-state queries
+ * allocate nothing.
+ */
+public class PositionBuffer {
+	private int[] coordinates;
+	private int size;
+
+	public PositionBuffer() {
+		this(32);
+	}
+
+	public PositionBuffer(int initialCapacity) {
+		this.coordinates = new int[Math.max(1, initialCapacity) * 2];
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public void add(int x, int y) {
+		if (size * 2 == coordinates.length)
+			coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+
+		coordinates[size * 2] = x;
+		coordinates[size * 2 + 1] = y;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int getX(int index) {
+		return coordinates[index * 2];
+	}
+
+	public int getY(int index) {
+		return coordinates[index * 2 + 1];
+	}
+
+	/**
+	 * Independent copy, for handing the positions to another thread
+	 */
+	public PositionBuffer copy() {
+		PositionBuffer copy = new PositionBuffer(size);
+		System.arraycopy(coordinates, 0, copy.coordinates, 0, size * 2);
+		copy.size = size;
+		return copy;
+	}
+}
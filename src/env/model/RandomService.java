@@ -0,0 +1,106 @@
+package model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seeded random streams for the whole run. Every stream is a SplittableRandom
+ * derived from the run seed and a stable key (an agent name, a bee id, a
+ * thread name), so a key always gets the same sequence for the same seed, no
+ * matter which thread asks first. Draws do not allocate.
+ *
+ * The seed comes from the melissa.seed system property; without it a seed is
+ * picked and printed, so the run can be repeated.
+ *
+ * A stream is not thread-safe: keyed streams are meant for a single owner (an
+ * agent, the stub server), current() is confined to the calling thread. Keyed
+ * streams are kept for the whole run, so short-lived owners such as a bee
+ * registration take an uncached stream from forBee instead.
+ */
+public class RandomService {
+	public static final String PROPERTY = "melissa.seed";
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private static final long seed = readSeed();
+	private static final ConcurrentHashMap<String, SplittableRandom> streams = new ConcurrentHashMap<>();
+	private static final ThreadLocal<SplittableRandom> threadStreams = ThreadLocal
+			.withInitial(() -> derive("thread:" + Thread.currentThread().getName()));
+
+	private RandomService() {
+	}
+
+	private static long readSeed() {
+		String property = System.getProperty(PROPERTY);
+		long runSeed;
+
+		if (property != null) {
+			try {
+				runSeed = Long.parseLong(property.trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid random seed: " + property);
+			}
+		} else {
+			runSeed = System.nanoTime() ^ System.currentTimeMillis();
+		}
+
+		System.out.println("[RandomService] Run seed: " + runSeed + " (-D" + PROPERTY + "=" + runSeed + " repeats it)");
+		return runSeed;
+	}
+
+	public static long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Stream owned by the key, created on first use
+	 */
+	public static SplittableRandom forKey(String key) {
+		return streams.computeIfAbsent(key, RandomService::derive);
+	}
+
+	public static SplittableRandom forAgent(String agentName) {
+		return forKey("agent:" + agentName);
+	}
+
+	/**
+	 * Fresh stream of the bee, not cached: the same bee id gets the same
+	 * sequence, without keeping anything once the caller drops it
+	 */
+	public static SplittableRandom forBee(String beeId) {
+		return new SplittableRandom(mix(hash(hash(seed, "bee:"), beeId)));
+	}
+
+	/**
+	 * Stream of the calling thread; reproducible for threads with a stable name
+	 * such as the simulation loop
+	 */
+	public static SplittableRandom current() {
+		return threadStreams.get();
+	}
+
+	/**
+	 * Uniform int in [min, max], both inclusive
+	 */
+	public static int nextInt(SplittableRandom random, int min, int max) {
+		return random.nextInt(min, max + 1);
+	}
+
+	private static SplittableRandom derive(String key) {
+		return new SplittableRandom(mix(hash(seed, key)));
+	}
+
+	// 64-bit hash of the key, one char at a time, so keys sharing a String.hashCode get distinct streams
+	private static long hash(long h, String key) {
+		for (int i = 0; i < key.length(); i++)
+			h = mix(h + GOLDEN_GAMMA + key.charAt(i));
+		return h;
+	}
+
+	// SplitMix64 finalizer, spreads nearby keys over the whole seed space
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
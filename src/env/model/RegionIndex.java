@@ -0,0 +1,179 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable point lookup over a set of axis-aligned rectangles, each tagged with
+ * a positive id. The map is cut into horizontal bands wherever a rectangle
+ * starts or ends; every row points to its band and every band keeps its
+ * rectangles as sorted, non-overlapping x intervals. A lookup is one array read
+ * plus a binary search over the few intervals of that band, and memory grows
+ * with the map height and the number of rectangles, not with the map area.
+ * Where rectangles overlap, the one added first wins.
+ */
+public class RegionIndex {
+	public static final int NONE = 0;
+
+	private final int rows;
+	private final int[] bandOfRow;
+	private final int[][] bandStarts;
+	private final int[][] bandEnds;
+	private final int[][] bandIds;
+
+	private RegionIndex(int rows, int[] bandOfRow, int[][] bandStarts, int[][] bandEnds, int[][] bandIds) {
+		this.rows = rows;
+		this.bandOfRow = bandOfRow;
+		this.bandStarts = bandStarts;
+		this.bandEnds = bandEnds;
+		this.bandIds = bandIds;
+	}
+
+	/**
+	 * Id of the rectangle covering (x, y), NONE if there is none. Bounds are
+	 * half-open: [x, x + width) and [y, y + height).
+	 */
+	public int find(int x, int y) {
+		if (y < 0 || y >= rows)
+			return NONE;
+
+		int band = bandOfRow[y];
+		int[] starts = bandStarts[band];
+
+		int low = 0, high = starts.length - 1, found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (starts[middle] <= x) {
+				found = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		if (found >= 0 && x < bandEnds[band][found])
+			return bandIds[band][found];
+
+		return NONE;
+	}
+
+	/**
+	 * Ids of the rectangles showing in the box [minX, maxX] x [minY, maxY],
+	 * bounds included. Only the bands of the rows in range are read, and in
+	 * each only the intervals overlapping the x range, found by binary search.
+	 * An id spanning several bands is visited once per band.
+	 */
+	public void forEachIn(int minX, int minY, int maxX, int maxY, IntConsumer visitor) {
+		if (maxY < 0 || minY >= rows || minY > maxY)
+			return;
+
+		int lastBand = bandOfRow[Math.min(rows - 1, maxY)];
+		for (int band = bandOfRow[Math.max(0, minY)]; band <= lastBand; band++) {
+			int[] starts = bandStarts[band], ends = bandEnds[band];
+
+			// first interval ending after minX
+			int low = 0, high = ends.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (ends[middle] <= minX)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+
+			for (int i = low; i < starts.length && starts[i] <= maxX; i++)
+				visitor.accept(bandIds[band][i]);
+		}
+	}
+
+	public static class Builder {
+		private final List<int[]> rectangles = new ArrayList<>();
+
+		public Builder add(int id, int x, int y, int width, int height) {
+			if (id <= NONE)
+				throw new IllegalArgumentException("Region id must be positive: " + id);
+
+			if (width > 0 && height > 0)
+				rectangles.add(new int[] { id, x, y, x + width, y + height });
+			return this;
+		}
+
+		/**
+		 * Build the index for rows [0, rows)
+		 */
+		public RegionIndex build(int rows) {
+			TreeSet<Integer> cuts = new TreeSet<>();
+			cuts.add(0);
+			cuts.add(rows);
+			for (int[] rectangle : rectangles) {
+				cuts.add(Math.max(0, Math.min(rows, rectangle[2])));
+				cuts.add(Math.max(0, Math.min(rows, rectangle[4])));
+			}
+
+			Integer[] bandTops = cuts.toArray(new Integer[0]);
+			int bands = bandTops.length - 1;
+			int[] bandOfRow = new int[rows];
+			int[][] bandStarts = new int[bands][];
+			int[][] bandEnds = new int[bands][];
+			int[][] bandIds = new int[bands][];
+
+			for (int band = 0; band < bands; band++) {
+				int top = bandTops[band];
+				Arrays.fill(bandOfRow, top, bandTops[band + 1], band);
+				buildBand(top, band, bandStarts, bandEnds, bandIds);
+			}
+
+			return new RegionIndex(rows, bandOfRow, bandStarts, bandEnds, bandIds);
+		}
+
+		// split the band at every rectangle edge and keep, per piece, the first rectangle covering it
+		private void buildBand(int top, int band, int[][] bandStarts, int[][] bandEnds, int[][] bandIds) {
+			List<int[]> covering = new ArrayList<>();
+			TreeSet<Integer> edges = new TreeSet<>();
+
+			for (int[] rectangle : rectangles) {
+				if (rectangle[2] <= top && top < rectangle[4]) {
+					covering.add(rectangle);
+					edges.add(rectangle[1]);
+					edges.add(rectangle[3]);
+				}
+			}
+
+			List<int[]> intervals = new ArrayList<>();
+			Integer previous = null;
+
+			for (Integer edge : edges) {
+				if (previous != null) {
+					int id = NONE;
+					for (int[] rectangle : covering) {
+						if (rectangle[1] <= previous && previous < rectangle[3]) {
+							id = rectangle[0];
+							break;
+						}
+					}
+
+					if (id != NONE) {
+						int[] last = intervals.isEmpty() ? null : intervals.get(intervals.size() - 1);
+						if (last != null && last[2] == id && last[1] == previous)
+							last[1] = edge;
+						else
+							intervals.add(new int[] { previous, edge, id });
+					}
+				}
+				previous = edge;
+			}
+
+			bandStarts[band] = new int[intervals.size()];
+			bandEnds[band] = new int[intervals.size()];
+			bandIds[band] = new int[intervals.size()];
+			for (int i = 0; i < intervals.size(); i++) {
+				bandStarts[band][i] = intervals.get(i)[0];
+				bandEnds[band][i] = intervals.get(i)[1];
+				bandIds[band][i] = intervals.get(i)[2];
+			}
+		}
+	}
+}
@@ -1,6 +1,7 @@
 // Wasp.java - Wasp predator entity model
 package model;
 
+import artifact.Parameters;
 import javafx.scene.paint.Color;
 
 /**
@@ -8,8 +9,6 @@ import javafx.scene.paint.Color;
  * The Wasp is an LLM-powered agent that hunts sentinel bees.
  */
 public class Wasp {
-    private static Wasp instance;
-
     private String id;
     private Position position;
     private int health;
@@ -19,12 +18,28 @@ public class Wasp {
     private int attackRadius;
     private int maxKillsPerAttack;
     private long lastBlockMessageTime = 0;
+    // the hive this wasp attacks and may not enter
+    private final int hiveX;
+    private final int hiveY;
+    private final int hiveWidth;
+    private final int hiveHeight;
 
     // Visual properties
     private static final Color WASP_COLOR = Color.web("rgb(180,0,0)", 1); // Dark red
     private static final int WASP_SIZE = 12; // Larger than bees (4px)
 
-    private Wasp() {
+    public Wasp() {
+        this(Parameters.HIVE_X, Parameters.HIVE_Y, Parameters.HIVE_WIDTH, Parameters.HIVE_HEIGHT);
+    }
+
+    /**
+     * Wasp attacking the hive with the given bounds
+     */
+    public Wasp(int hiveX, int hiveY, int hiveWidth, int hiveHeight) {
+        this.hiveX = hiveX;
+        this.hiveY = hiveY;
+        this.hiveWidth = hiveWidth;
+        this.hiveHeight = hiveHeight;
         this.id = "wasp";
         this.maxHealth = 200;
         this.health = maxHealth;
@@ -35,17 +50,6 @@ public class Wasp {
         this.position = new Position(10, 10); // Spawn at top-left
     }
 
-    public static synchronized Wasp getInstance() {
-        if (instance == null) {
-            instance = new Wasp();
-        }
-        return instance;
-    }
-
-    public static void reset() {
-        instance = null;
-    }
-
     public String getId() {
         return id;
     }
@@ -178,18 +182,13 @@ public class Wasp {
     }
 
     /**
-     * Check if position is inside hive area
-     * Hive is at (649, 449) with size 150x150
+     * Check if position is inside the attacked hive's area
      */
     private boolean isInsideHive(int x, int y) {
-        int HIVE_X = 649;
-        int HIVE_Y = 449;
-        int HIVE_WIDTH = 150;
-        int HIVE_HEIGHT = 150;
         int MARGIN = 10; // Stay 10px away from hive
 
-        return x >= (HIVE_X - MARGIN) && x <= (HIVE_X + HIVE_WIDTH + MARGIN) &&
-                y >= (HIVE_Y - MARGIN) && y <= (HIVE_Y + HIVE_HEIGHT + MARGIN);
+        return x >= (hiveX - MARGIN) && x <= (hiveX + hiveWidth + MARGIN) &&
+                y >= (hiveY - MARGIN) && y <= (hiveY + hiveHeight + MARGIN);
     }
 
     @Override
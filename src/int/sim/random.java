@@ -0,0 +1,65 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+import jason.JasonException;
+import jason.asSemantics.DefaultInternalAction;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.NumberTerm;
+import jason.asSyntax.Term;
+import model.RandomService;
+
+/**
+ * sim.random(N): like .random(N), N is a number in [0, 1), but drawn from the
+ * agent's own stream of the seeded RandomService, so a run can be repeated.
+ * sim.random(N, Max) gives a number in [0, Max).
+ * <p>
+ * The stream is looked up on the first draw of the agent and kept, so later
+ * draws neither build its key nor search the stream map.
+ */
+public class random extends DefaultInternalAction {
+
+	// the agent and its stream, replaced together if the action serves another agent
+	private static final class Owner {
+		final TransitionSystem ts;
+		final SplittableRandom stream;
+
+		Owner(TransitionSystem ts) {
+			this.ts = ts;
+			this.stream = RandomService.forAgent(ts.getAgArch().getAgName());
+		}
+	}
+
+	private volatile Owner owner;
+
+	@Override
+	public int getMinArgs() {
+		return 1;
+	}
+
+	@Override
+	public int getMaxArgs() {
+		return 2;
+	}
+
+	@Override
+	public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+		checkArguments(args);
+
+		double max = 1;
+		if (args.length == 2) {
+			if (!args[1].isNumeric())
+				throw JasonException.createWrongArgument(this, "the maximum must be a number");
+			max = ((NumberTerm) args[1]).solve();
+		}
+
+		Owner current = owner;
+		if (current == null || current.ts != ts)
+			owner = current = new Owner(ts);
+
+		double value = current.stream.nextDouble() * max;
+		return un.unifies(args[0], ASSyntax.createNumber(value));
+	}
+}
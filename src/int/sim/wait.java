@@ -0,0 +1,51 @@
+package sim;
+
+import graphic.SimulationClock;
+import jason.JasonException;
+import jason.asSemantics.DefaultInternalAction;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.NumberTerm;
+import jason.asSyntax.Term;
+
+/**
+ * sim.wait(Millis): like .wait(Millis), but Millis is simulated time, scaled
+ * to wall time by the simulation clock. The intention is always suspended for
+ * at least a millisecond, so waiting loops keep yielding to the other agents.
+ */
+public class wait extends DefaultInternalAction {
+	private final jason.stdlib.wait delegate = new jason.stdlib.wait();
+
+	@Override
+	public int getMinArgs() {
+		return 1;
+	}
+
+	@Override
+	public int getMaxArgs() {
+		return 1;
+	}
+
+	@Override
+	public boolean suspendIntention() {
+		return true;
+	}
+
+	@Override
+	public boolean canBeUsedInContext() {
+		return false;
+	}
+
+	@Override
+	public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+		checkArguments(args);
+		if (!args[0].isNumeric())
+			throw JasonException.createWrongArgument(this, "the time to wait must be a number");
+
+		long millis = (long) ((NumberTerm) args[0]).solve();
+		long wallMillis = Math.max(1, SimulationClock.getInstance().toWallMillis(millis));
+
+		return delegate.execute(ts, un, new Term[] { ASSyntax.createNumber(wallMillis) });
+	}
+}